@@ -0,0 +1,26 @@
+package core;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark in this directory with JMH's GC profiler attached, so each result
+ * also reports allocation rate (gc.alloc.rate and gc.alloc.rate.norm, bytes per operation).
+ *
+ * The benchmarks live in package core to reach World's package-private stages. The pom.xml
+ * next to this directory builds them with src and tileengine into a runnable jar, with
+ * this class as its main class. An optional argument narrows the run to matching
+ * benchmarks, for example "Hallway". No benchmark opens a window, so they run headless.
+ * Compare gc.alloc.rate.norm between releases to catch allocation regressions.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String prefix = args.length > 0 ? args[0] : "";
+        new Runner(new OptionsBuilder()
+                .include("core\\." + prefix + ".*Benchmark")
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,66 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of keeping a FlowField on a moving target: the target steps back and forth
+ * between two neighbouring floor tiles, so every invocation is one incremental repair.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FlowFieldBenchmark {
+    @Param({"70x60", "1000x1000"})
+    public String size;
+
+    @Param({"32", "128", "2147483646"})
+    public int maxDistance;
+
+    private FlowField field;
+    private int x;
+    private int y;
+    private int step = 1;
+
+    @Setup
+    public void setUp() {
+        String[] parts = size.split("x");
+        World world = new World(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        TileGrid grid = world.generateGrid(5);
+        field = new FlowField(grid, maxDistance);
+        search:
+        for (x = 0; x < grid.width() - 1; x++) {
+            for (y = 0; y < grid.height(); y++) {
+                if (Tileset.isPassable(grid.id(x, y)) && Tileset.isPassable(grid.id(x + 1, y))) {
+                    break search;
+                }
+            }
+        }
+        field.setTarget(x, y);
+        field.distance(x, y);
+    }
+
+    @Benchmark
+    public int step() {
+        x += step;
+        step = -step;
+        field.setTarget(x, y);
+        return field.distance(x, y);
+    }
+}
@@ -0,0 +1,57 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tileengine.TileGrid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * World.generate end to end. Each invocation generates the next seed of the chosen set,
+ * so the score averages over different layouts rather than one lucky seed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GenerationBenchmark {
+    @Param({"70x60", "300x300", "1000x1000"})
+    public String size;
+
+    @Param({"sequential", "scattered"})
+    public String seedSet;
+
+    private long[] seeds;
+    private int next;
+    private int width;
+    private int height;
+
+    @Setup
+    public void setUp() {
+        String[] parts = size.split("x");
+        width = Integer.parseInt(parts[0]);
+        height = Integer.parseInt(parts[1]);
+        seeds = new long[16];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = seedSet.equals("sequential") ? i : i * 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    @Benchmark
+    public TileGrid generate() {
+        long seed = seeds[next];
+        next = (next + 1) % seeds.length;
+        return new World(width, height).generateGrid(seed);
+    }
+}
@@ -0,0 +1,50 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * hallwayGenerator alone, at growing room counts. The world is generated once per trial to
+ * get its rooms; each invocation then re-runs the hallway stage over the same rooms. Carving
+ * over already carved corridors touches the same tiles, so the work per call stays the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HallwayBenchmark {
+    private static final long SEED = 42;
+
+    /** Approximate number of rooms; the world is sized so generation places about this many. */
+    @Param({"16", "128", "1024", "8192"})
+    public int rooms;
+
+    private World world;
+
+    @Setup
+    public void setUp() {
+        double maps = Math.max(1, rooms / (World.ROOM_AT_LEAST + World.MORE_ROOM / 2.0));
+        int side = (int) Math.ceil(Math.sqrt(maps * World.DEFAULT_WIDTH * World.DEFAULT_HEIGHT));
+        world = new World(side, side);
+        world.generateGrid(SEED);
+    }
+
+    @Benchmark
+    public int hallwayGenerator() {
+        world.hallways.clear();
+        world.hallwayGenerator();
+        return world.hallways.size();
+    }
+}
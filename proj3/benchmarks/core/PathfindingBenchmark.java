@@ -0,0 +1,72 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One PathFinder query between random passable tiles, and the same query planned with
+ * HierarchicalPathFinder. Each invocation uses the next pair of a fixed set, so routes of
+ * every length are averaged in.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PathfindingBenchmark {
+    private static final int PAIRS = 256;
+
+    @Param({"70x60", "1000x1000"})
+    public String size;
+
+    private PathFinder finder;
+    private HierarchicalPathFinder planner;
+    private int[] points;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] parts = size.split("x");
+        World world = new World(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        TileGrid grid = world.generateGrid(5);
+        finder = world.getPathFinder();
+        planner = world.getHierarchicalPathFinder();
+        Random random = new Random(5);
+        points = new int[PAIRS * 4];
+        for (int i = 0; i < points.length; i += 2) {
+            do {
+                points[i] = random.nextInt(grid.width());
+                points[i + 1] = random.nextInt(grid.height());
+            } while (!Tileset.isPassable(grid.id(points[i], points[i + 1])));
+        }
+    }
+
+    @Benchmark
+    public int distance() {
+        int i = next;
+        next = (next + 4) % points.length;
+        return finder.distance(points[i], points[i + 1], points[i + 2], points[i + 3]);
+    }
+
+    @Benchmark
+    public Object hierarchical() {
+        int i = next;
+        next = (next + 4) % points.length;
+        return planner.findRoute(points[i], points[i + 1], points[i + 2], points[i + 3]);
+    }
+}
@@ -0,0 +1,61 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and load of a default-size world through Main.writeSave and Main.readSave, using a
+ * temporary file instead of the real save slot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PersistenceBenchmark {
+    private World world;
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        world = new World();
+        world.generate(42);
+        file = File.createTempFile("world-bench", ".txt");
+        Main.writeSave(world, file);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        Main.writeSave(world, file);
+    }
+
+    @Benchmark
+    public World load() throws IOException {
+        return Main.readSave(file);
+    }
+
+    @Benchmark
+    public World roundTrip() throws IOException {
+        Main.writeSave(world, file);
+        return Main.readSave(file);
+    }
+}
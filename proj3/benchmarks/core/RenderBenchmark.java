@@ -0,0 +1,89 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tileengine.ImageCanvas;
+import tileengine.ImageRenderer;
+import tileengine.TERenderer;
+import tileengine.TETile;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering a default-size world without a display. TERenderer draws onto an ImageCanvas
+ * the way the game draws onto StdDraw's window: drawTiles is a full frame, and
+ * renderOneTileChange is a frame where one tile differs from the last, which exercises the
+ * dirty-tile diff and should draw a single tile. ImageRenderer draws a full frame into an
+ * image it reuses, from the TETile[][] array and straight from the TileGrid; its pool has
+ * one thread so the numbers are per core.
+ *
+ * Nothing here touches StdDraw, so this runs headless; the forked JVM sets
+ * java.awt.headless to make sure.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RenderBenchmark {
+    private ImageRenderer renderer;
+    private TETile[][] tiles;
+    private TileGrid grid;
+    private BufferedImage image;
+    private TERenderer frames;
+    private TETile[][] changed;
+    private boolean flip;
+
+    @Setup
+    public void setUp() {
+        World world = new World();
+        grid = world.generateGrid(42);
+        tiles = grid.asArray();
+        renderer = new ImageRenderer(ImageRenderer.DEFAULT_TILE_SIZE, new ForkJoinPool(1));
+        image = renderer.render(tiles);
+
+        frames = new TERenderer(new ImageCanvas());
+        frames.initialize(world.width(), world.height());
+        changed = TETile.copyOf(tiles);
+        World.Position avatar = world.getAvatarPosition();
+        changed[avatar.line][avatar.column] = Tileset.FLOOR;
+        frames.renderFrame(tiles);
+    }
+
+    @Benchmark
+    public void drawTiles() {
+        frames.drawTiles(tiles);
+    }
+
+    @Benchmark
+    public int renderOneTileChange() {
+        flip = !flip;
+        frames.renderFrame(flip ? changed : tiles);
+        return frames.lastFrameDrawCount();
+    }
+
+    @Benchmark
+    public BufferedImage renderArray() {
+        renderer.render(tiles, image);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage renderGrid() {
+        renderer.render(grid, image);
+        return image;
+    }
+}
@@ -0,0 +1,88 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line of sight costs: one full frame of isTileVisible checks, as
+ * Main.renderWithLineOfSight does each loop iteration, one shadowcast, which is
+ * what an avatar move costs, and one VisibilityBatch tick for a crowd of viewers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VisibilityBenchmark {
+    @Param({"1", "7", "12345"})
+    public long seed;
+
+    private World world;
+    private FieldOfView fov;
+    private VisibilityBatch batch;
+    private int[] viewerXs;
+    private int[] viewerYs;
+
+    @Param({"1000"})
+    public int viewers;
+
+    @Setup
+    public void setUp() {
+        world = new World();
+        world.generate(seed);
+        world.toggleLineOfSight();
+        fov = new FieldOfView(world.getTileGrid());
+        TileGrid grid = world.getTileGrid();
+        batch = new VisibilityBatch(grid);
+        viewerXs = new int[viewers];
+        viewerYs = new int[viewers];
+        Random random = new Random(seed);
+        for (int i = 0; i < viewers; i++) {
+            do {
+                viewerXs[i] = random.nextInt(grid.width());
+                viewerYs[i] = random.nextInt(grid.height());
+            } while (!Tileset.isPassable(grid.id(viewerXs[i], viewerYs[i])));
+        }
+    }
+
+    @Benchmark
+    public int fullFrame() {
+        int visible = 0;
+        for (int x = 0; x < world.width(); x++) {
+            for (int y = 0; y < world.height(); y++) {
+                if (world.isTileVisible(x, y)) {
+                    visible++;
+                }
+            }
+        }
+        return visible;
+    }
+
+    @Benchmark
+    public int shadowcast() {
+        World.Position avatar = world.getAvatarPosition();
+        fov.compute(avatar.line, avatar.column);
+        return fov.visible().cardinality();
+    }
+
+    @Benchmark
+    public int batch() {
+        batch.compute(viewerXs, viewerYs, viewers);
+        return batch.visibleCount(viewers - 1);
+    }
+}
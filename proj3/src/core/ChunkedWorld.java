@@ -0,0 +1,202 @@
+package core;
+
+import tileengine.TETile;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+import utils.RandomStreams;
+
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An endless world made of CHUNK_SIZE x CHUNK_SIZE chunks. Each chunk is an ordinary
+ * generated World whose seed is derived from (seed, chunkX, chunkY), so any chunk can be
+ * rebuilt on demand and always comes out the same.
+ *
+ * Every edge shared by two chunks has one door whose position depends only on the seed and
+ * that edge. Both chunks open the door in their border wall and carve a corridor from it to
+ * their nearest room, so hallways line up across chunk borders without either chunk having
+ * to look at the other.
+ *
+ * Only the most recently used chunks are kept; the rest are evicted and regenerated when
+ * revisited, so memory stays flat however far the avatar walks. The avatar is drawn on top
+ * of the chunks rather than written into them, which keeps regenerated chunks identical.
+ * Other runtime edits to a chunk are lost when it is evicted.
+ */
+public class ChunkedWorld {
+    public static final int CHUNK_SIZE = 64;
+    public static final int DEFAULT_CACHED_CHUNKS = 64;
+
+    private static final long EAST_DOOR = 0x1;
+    private static final long NORTH_DOOR = 0x2;
+
+    private final long seed;
+    private final Map<Long, TileGrid> chunks;
+    private int avatarX;
+    private int avatarY;
+
+    public ChunkedWorld(long seed) {
+        this(seed, DEFAULT_CACHED_CHUNKS);
+    }
+
+    /**
+     * @param seed seed of the whole world
+     * @param cachedChunks how many chunks to keep before evicting the least recently used;
+     *                     must cover at least the chunks one screen can show
+     */
+    public ChunkedWorld(long seed, int cachedChunks) {
+        this.seed = seed;
+        this.chunks = new LinkedHashMap<>(cachedChunks * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TileGrid> eldest) {
+                return size() > cachedChunks;
+            }
+        };
+        World origin = generateChunk(0, 0);
+        chunks.put(key(0, 0), origin.getTileGrid());
+        avatarX = origin.getAvatarPosition().line;
+        avatarY = origin.getAvatarPosition().column;
+    }
+
+    public int getAvatarX() {
+        return avatarX;
+    }
+
+    public int getAvatarY() {
+        return avatarY;
+    }
+
+    public int cachedChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Tile at the given world coordinates, generating its chunk if needed. The avatar is
+     * not included; see fillView.
+     */
+    public TETile getTile(int x, int y) {
+        TileGrid chunk = chunk(Math.floorDiv(x, CHUNK_SIZE), Math.floorDiv(y, CHUNK_SIZE));
+        return chunk.get(Math.floorMod(x, CHUNK_SIZE), Math.floorMod(y, CHUNK_SIZE));
+    }
+
+    /**
+     * Copies the window of the world whose lower left corner is (originX, originY) into
+     * view, with the avatar drawn in. The view array is reused between frames.
+     */
+    public void fillView(TETile[][] view, int originX, int originY) {
+        for (int x = 0; x < view.length; x++) {
+            int chunkX = Math.floorDiv(originX + x, CHUNK_SIZE);
+            int localX = Math.floorMod(originX + x, CHUNK_SIZE);
+            // Look a chunk up only when the column crosses into it, not once per tile.
+            TileGrid chunk = null;
+            int chunkY = 0;
+            for (int y = 0; y < view[x].length; y++) {
+                int worldY = originY + y;
+                if (chunk == null || Math.floorDiv(worldY, CHUNK_SIZE) != chunkY) {
+                    chunkY = Math.floorDiv(worldY, CHUNK_SIZE);
+                    chunk = chunk(chunkX, chunkY);
+                }
+                view[x][y] = chunk.get(localX, Math.floorMod(worldY, CHUNK_SIZE));
+            }
+        }
+        int ax = avatarX - originX;
+        int ay = avatarY - originY;
+        if (ax >= 0 && ax < view.length && ay >= 0 && ay < view[ax].length) {
+            view[ax][ay] = Tileset.AVATAR;
+        }
+    }
+
+    public void moveAvatar(char input)
+            throws UnsupportedAudioFileException, LineUnavailableException, IOException {
+        int x = avatarX;
+        int y = avatarY;
+        switch (Character.toLowerCase(input)) {
+            case 'w' -> y += 1;
+            case 's' -> y -= 1;
+            case 'a' -> x -= 1;
+            case 'd' -> x += 1;
+            default -> {
+                System.out.println("Invalid input: " + input);
+                return;
+            }
+        }
+        if (!getTile(x, y).equals(Tileset.WALL)) {
+            World.walking("./step.wav");
+            avatarX = x;
+            avatarY = y;
+        }
+    }
+
+    private TileGrid chunk(int chunkX, int chunkY) {
+        long key = key(chunkX, chunkY);
+        TileGrid chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = generateChunk(chunkX, chunkY).getTileGrid();
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    private static long key(int chunkX, int chunkY) {
+        return (long) chunkX << 32 | (chunkY & 0xFFFFFFFFL);
+    }
+
+    private World generateChunk(int chunkX, int chunkY) {
+        World world = new World(CHUNK_SIZE, CHUNK_SIZE);
+        world.generateGrid(RandomStreams.derive(seed, key(chunkX, chunkY), 0));
+        World.Position spawn = world.getAvatarPosition();
+        if (spawn != null) {
+            world.getTileGrid().set(spawn.line, spawn.column, World.FLOOR);
+        }
+        if (!world.rooms.isEmpty()) {
+            int last = CHUNK_SIZE - 1;
+            // A chunk's west and south doors are its neighbours' east and north doors.
+            openDoor(world, 0, doorOffset(chunkX - 1, chunkY, EAST_DOOR), true);
+            openDoor(world, last, doorOffset(chunkX, chunkY, EAST_DOOR), true);
+            openDoor(world, doorOffset(chunkX, chunkY - 1, NORTH_DOOR), 0, false);
+            openDoor(world, doorOffset(chunkX, chunkY, NORTH_DOOR), last, false);
+            world.finalizeWalls();
+        }
+        return world;
+    }
+
+    /**
+     * Position along the edge of the door on the east (or north) edge of the given chunk,
+     * kept clear of the chunk's margins so the corridor behind it has room to turn.
+     */
+    private int doorOffset(int chunkX, int chunkY, long side) {
+        int margin = CHUNK_SIZE / World.MARGIN_MAKER + 1;
+        long hash = RandomStreams.derive(seed, key(chunkX, chunkY), side);
+        return margin + (int) Math.floorMod(hash, (long) CHUNK_SIZE - 2 * margin);
+    }
+
+    /**
+     * Opens the border tile at (x, y) and carves a corridor from just inside it to the
+     * nearest room, keeping the corridor's first leg perpendicular to the border.
+     */
+    private static void openDoor(World world, int x, int y, boolean verticalEdge) {
+        int insideX = verticalEdge ? (x == 0 ? 1 : x - 1) : x;
+        int insideY = verticalEdge ? y : (y == 0 ? 1 : y - 1);
+        Room nearest = world.rooms.get(0);
+        for (Room room : world.rooms) {
+            if (distance(room, insideX, insideY) < distance(nearest, insideX, insideY)) {
+                nearest = room;
+            }
+        }
+        if (verticalEdge) {
+            world.carveCorridor(insideX, insideY, nearest.center[0], nearest.center[1]);
+        } else {
+            world.carveCorridor(nearest.center[0], nearest.center[1], insideX, insideY);
+        }
+        world.setTile(x, y, World.FLOOR);
+    }
+
+    private static long distance(Room room, int x, int y) {
+        long dx = room.center[0] - x;
+        long dy = room.center[1] - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,117 @@
+package core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a connectivity check: how many passable tiles the avatar can walk to, and
+ * the regions it cannot reach.
+ */
+public class ConnectivityReport {
+    /**
+     * A connected group of passable tiles that the spawn point cannot reach.
+     */
+    public static class Region {
+        private final int x;
+        private final int y;
+        private final int size;
+        private final int minX;
+        private final int minY;
+        private final int maxX;
+        private final int maxY;
+
+        Region(int x, int y, int size, int minX, int minY, int maxX, int maxY) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        /** X of one tile in the region. */
+        public int x() {
+            return x;
+        }
+
+        /** Y of one tile in the region. */
+        public int y() {
+            return y;
+        }
+
+        /** Number of tiles in the region. */
+        public int size() {
+            return size;
+        }
+
+        public int minX() {
+            return minX;
+        }
+
+        public int minY() {
+            return minY;
+        }
+
+        public int maxX() {
+            return maxX;
+        }
+
+        public int maxY() {
+            return maxY;
+        }
+
+        @Override
+        public String toString() {
+            return size + " tiles in (" + minX + ", " + minY + ")-(" + maxX + ", " + maxY + ")";
+        }
+    }
+
+    private final int passableTiles;
+    private final int reachableTiles;
+    private final List<Region> unreachable;
+    private final int repairedRegions;
+
+    ConnectivityReport(int passableTiles, int reachableTiles, List<Region> unreachable,
+                       int repairedRegions) {
+        this.passableTiles = passableTiles;
+        this.reachableTiles = reachableTiles;
+        this.unreachable = Collections.unmodifiableList(unreachable);
+        this.repairedRegions = repairedRegions;
+    }
+
+    /** Whether every passable tile can be reached from the spawn point. */
+    public boolean isConnected() {
+        return unreachable.isEmpty();
+    }
+
+    public int passableTiles() {
+        return passableTiles;
+    }
+
+    public int reachableTiles() {
+        return reachableTiles;
+    }
+
+    /** Regions the spawn point cannot reach, largest first. */
+    public List<Region> unreachableRegions() {
+        return unreachable;
+    }
+
+    /** Number of regions joined to the rest of the map by a repair before this check. */
+    public int repairedRegions() {
+        return repairedRegions;
+    }
+
+    ConnectivityReport withRepairs(int repaired) {
+        return new ConnectivityReport(passableTiles, reachableTiles, unreachable, repaired);
+    }
+
+    @Override
+    public String toString() {
+        return reachableTiles + "/" + passableTiles + " passable tiles reachable, "
+                + unreachable.size() + " unreachable regions" + (repairedRegions > 0
+                ? " after repairing " + repairedRegions : "") + (unreachable.isEmpty()
+                ? "" : ": " + unreachable);
+    }
+}
@@ -0,0 +1,190 @@
+package core;
+
+import tileengine.TileBitSet;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks that every passable tile of a grid can be walked to from a starting tile.
+ *
+ * The grid is first packed into a passability bitmap, then flooded with a scanline fill:
+ * each step fills a whole vertical run of a column (the direction cells are laid out in
+ * memory) and only queues the runs it touches in the two neighbouring columns. Whatever
+ * passable tile is left unvisited belongs to an unreachable region, and each of those is
+ * flooded in turn to measure it. The bitmaps are kept between checks, so checking one
+ * world after another allocates only the report.
+ *
+ * Not thread-safe; World keeps one per world.
+ */
+public class ConnectivityValidator {
+    private final TileGrid tiles;
+    private final int width;
+    private final int height;
+    private final TileBitSet passable;
+    private final TileBitSet visited;
+    private final TileBitSet reached;
+    private int[] stack = new int[64];
+
+    // Bounds and size of the last flood.
+    private int count;
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+
+    public ConnectivityValidator(TileGrid tiles) {
+        this.tiles = tiles;
+        this.width = tiles.width();
+        this.height = tiles.height();
+        this.passable = new TileBitSet(width, height);
+        this.visited = new TileBitSet(width, height);
+        this.reached = new TileBitSet(width, height);
+    }
+
+    /**
+     * Pipeline stage that validates, and optionally repairs, each generated world. Add it
+     * after the avatar stage so the check starts from the spawn point:
+     * world.getPipeline().add(ConnectivityValidator.stage(true)).
+     * The result is available from World.getConnectivityReport.
+     */
+    public static GenerationStage stage(boolean repair) {
+        return GenerationStage.of(GenerationPipeline.CONNECTIVITY,
+                c -> c.world().validateConnectivity(repair));
+    }
+
+    /**
+     * Finds the passable tiles that cannot be reached from (startX, startY). If the start
+     * is not passable, every passable tile is reported as unreachable.
+     */
+    public ConnectivityReport validate(int startX, int startY) {
+        passable.clear();
+        visited.clear();
+        int passableTiles = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (Tileset.isPassable(tiles.id(x, y))) {
+                    passable.set(x, y);
+                    passableTiles++;
+                }
+            }
+        }
+        int reachable = 0;
+        if (passable.get(startX, startY)) {
+            flood(startX, startY);
+            reachable = count;
+        }
+        reached.copyFrom(visited);
+        List<ConnectivityReport.Region> regions = new ArrayList<>();
+        if (reachable < passableTiles) {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    if (passable.get(x, y) && !visited.get(x, y)) {
+                        flood(x, y);
+                        regions.add(new ConnectivityReport.Region(x, y, count, minX, minY, maxX, maxY));
+                    }
+                }
+            }
+            regions.sort((a, b) -> Integer.compare(b.size(), a.size()));
+        }
+        return new ConnectivityReport(passableTiles, reachable, regions, 0);
+    }
+
+    /**
+     * Whether the last validate call reached the tile from the start.
+     */
+    public boolean isReached(int x, int y) {
+        return reached.get(x, y);
+    }
+
+    /**
+     * Scanline flood fill from (x, y) over passable, unvisited tiles, recording the size
+     * and bounding box of what it fills.
+     */
+    private void flood(int startX, int startY) {
+        count = 0;
+        minX = startX;
+        maxX = startX;
+        minY = startY;
+        maxY = startY;
+        int top = 0;
+        stack[top++] = startX * height + startY;
+        while (top > 0) {
+            int cell = stack[--top];
+            int x = cell / height;
+            int y = cell % height;
+            if (visited.get(x, y)) {
+                continue;
+            }
+            int y0 = y;
+            while (y0 > 0 && passable.get(x, y0 - 1) && !visited.get(x, y0 - 1)) {
+                y0--;
+            }
+            int y1 = y;
+            while (y1 < height - 1 && passable.get(x, y1 + 1) && !visited.get(x, y1 + 1)) {
+                y1++;
+            }
+            for (int j = y0; j <= y1; j++) {
+                visited.set(x, j);
+            }
+            count += y1 - y0 + 1;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y0);
+            maxY = Math.max(maxY, y1);
+            for (int nx = x - 1; nx <= x + 1; nx += 2) {
+                if (nx < 0 || nx >= width) {
+                    continue;
+                }
+                // Queue one seed per run of open tiles next to the filled run.
+                boolean inRun = false;
+                for (int j = y0; j <= y1; j++) {
+                    boolean open = passable.get(nx, j) && !visited.get(nx, j);
+                    if (open && !inRun) {
+                        if (top == stack.length) {
+                            stack = Arrays.copyOf(stack, top * 2);
+                        }
+                        stack[top++] = nx * height + j;
+                    }
+                    inRun = open;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates every seed in [fromSeed, toSeed) at the given size on all cores and
+     * prints the seeds whose worlds have unreachable regions. Useful as a regression
+     * sweep after changing the generator.
+     * Usage: ConnectivityValidator fromSeed toSeed [width height]
+     */
+    public static void main(String[] args) {
+        long from = args.length > 0 ? Long.parseLong(args[0]) : 0;
+        long to = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        int width = args.length > 3 ? Integer.parseInt(args[2]) : World.DEFAULT_WIDTH;
+        int height = args.length > 3 ? Integer.parseInt(args[3]) : World.DEFAULT_HEIGHT;
+        ConcurrentSkipListSet<Long> failing = new ConcurrentSkipListSet<>();
+        LongAdder unreachableTiles = new LongAdder();
+        WorldGenerator.BatchStats stats = new WorldGenerator(
+                ForkJoinPool.commonPool(), width, height)
+                .generate(from, to, (seed, world) -> {
+                    ConnectivityReport report = world.validateConnectivity(false);
+                    if (!report.isConnected()) {
+                        failing.add(seed);
+                        unreachableTiles.add(report.passableTiles() - report.reachableTiles());
+                    }
+                });
+        for (long seed : failing) {
+            System.out.println("seed " + seed + " has unreachable regions");
+        }
+        System.out.println(stats);
+        System.out.println(failing.size() + " of " + (to - from) + " seeds disconnected, "
+                + unreachableTiles.sum() + " unreachable tiles in total");
+    }
+}
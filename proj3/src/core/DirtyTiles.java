@@ -0,0 +1,63 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * Set of tiles changed since the last wall fix-up. Membership is a packed bitset so marking
+ * the same tile twice is cheap, and members are also kept in insertion order in a growable
+ * int array so a fix-up pass can visit exactly the changed tiles without scanning the grid.
+ * Tiles are identified by x * height + y, the same layout TileGrid uses.
+ */
+public class DirtyTiles {
+    private final int height;
+    private final long[] bits;
+    private int[] members = new int[64];
+    private int size;
+
+    public DirtyTiles(int width, int height) {
+        this.height = height;
+        this.bits = new long[(int) (((long) width * height + 63) >>> 6)];
+    }
+
+    public void mark(int x, int y) {
+        int i = x * height + y;
+        long mask = 1L << i;
+        if ((bits[i >>> 6] & mask) != 0) {
+            return;
+        }
+        bits[i >>> 6] |= mask;
+        if (size == members.length) {
+            members = Arrays.copyOf(members, size * 2);
+        }
+        members[size++] = i;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int x(int member) {
+        return members[member] / height;
+    }
+
+    public int y(int member) {
+        return members[member] % height;
+    }
+
+    /**
+     * Empties the set. Costs time proportional to the number of members, not the grid.
+     */
+    public void clear() {
+        for (int m = 0; m < size; m++) {
+            bits[members[m] >>> 6] = 0;
+        }
+        size = 0;
+        if (members.length > 4096) {
+            members = new int[64];
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package core;
+
+import tileengine.TileBitSet;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+/**
+ * Tiles visible from one point, computed with recursive shadowcasting (see Shadowcaster).
+ *
+ * Walls block sight but are themselves visible. A tile is in range when its squared
+ * distance from the viewer is at most radius squared. For many viewers at once, use
+ * VisibilityBatch instead.
+ */
+public class FieldOfView {
+    public static final int DEFAULT_RADIUS = 7;
+
+    private final TileBitSet visible;
+    private final Shadowcaster caster;
+    private boolean computed;
+
+    public FieldOfView(TileGrid tiles) {
+        this(tiles, DEFAULT_RADIUS);
+    }
+
+    public FieldOfView(TileGrid tiles, int radius) {
+        this.visible = new TileBitSet(tiles.width(), tiles.height());
+        this.caster = new Shadowcaster(tiles.width(), tiles.height(), radius) {
+            @Override
+            boolean blocksSight(int x, int y) {
+                return tiles.is(x, y, Tileset.WALL);
+            }
+
+            @Override
+            void light(int x, int y) {
+                visible.set(x, y);
+            }
+        };
+    }
+
+    /**
+     * Recomputes the visible set for a viewer at x, y. Only the square around the previous
+     * viewer is cleared, so the cost depends on the radius, not the size of the map.
+     */
+    public void compute(int x, int y) {
+        if (computed) {
+            int r = caster.radius;
+            visible.clear(caster.originX - r, caster.originY - r,
+                    caster.originX + r, caster.originY + r);
+        }
+        computed = true;
+        caster.cast(x, y);
+    }
+
+    public boolean isVisible(int x, int y) {
+        return visible.get(x, y);
+    }
+
+    /** The visible set from the last compute call. Do not modify it. */
+    public TileBitSet visible() {
+        return visible;
+    }
+
+    public int radius() {
+        return caster.radius;
+    }
+}
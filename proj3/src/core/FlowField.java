@@ -0,0 +1,396 @@
+package core;
+
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Arrays;
+
+/**
+ * Walking distance from every passable tile to the nearest of a set of targets, so any
+ * number of agents chasing the same targets can each pick their next step with four array
+ * reads instead of running their own search.
+ *
+ * The distance map is built once with a multi-source breadth-first search. When targets
+ * move it is repaired rather than rebuilt, in the style of Ramalingam and Reps: adding a
+ * target only relaxes the tiles that get closer, and removing one first finds the tiles
+ * whose every shortest route led to it, then re-settles just those from their unaffected
+ * neighbours. Either way the work is proportional to the number of distances that change.
+ *
+ * When a target takes one step, the distance of nearly every tile changes by one, so an
+ * unbounded map still costs time proportional to its reachable area per step. A field
+ * built with a maximum distance only tracks tiles within that many steps of a target
+ * (everything further reads UNREACHABLE), which bounds the work per step by the area of
+ * that radius however large the map is and however many agents read it.
+ *
+ * Passability is read from the grid (see Tileset.isPassable). The map does not notice
+ * edits on its own; call invalidate after changing passability and it is rebuilt on the
+ * next query. Not thread-safe.
+ */
+public class FlowField {
+    /** Distance of tiles that cannot reach any target. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final TileGrid tiles;
+    private final int maxDistance;
+    private final int width;
+    private final int height;
+    private final int[] distance;
+    private final boolean[] target;
+    private int[] targets = new int[4];
+    private int targetCount;
+    private boolean stale = true;
+
+    // Scratch space for repairs, reused between calls.
+    private final int[] affected;
+    private int epoch;
+    private int[] queue = new int[256];
+    private long[] heap = new long[256];
+    private int heapSize;
+
+    /**
+     * Creates a field that tracks every reachable tile, however far.
+     */
+    public FlowField(TileGrid tiles) {
+        this(tiles, UNREACHABLE - 1);
+    }
+
+    /**
+     * @param maxDistance tiles further than this many steps from every target read as
+     *                    UNREACHABLE
+     */
+    public FlowField(TileGrid tiles, int maxDistance) {
+        if (maxDistance < 0 || maxDistance >= UNREACHABLE) {
+            throw new IllegalArgumentException("invalid maximum distance: " + maxDistance);
+        }
+        this.tiles = tiles;
+        this.maxDistance = maxDistance;
+        this.width = tiles.width();
+        this.height = tiles.height();
+        distance = new int[width * height];
+        target = new boolean[width * height];
+        affected = new int[width * height];
+    }
+
+    /**
+     * Makes (x, y) the only target by adding it and then removing the old targets, so the
+     * map is repaired rather than rebuilt. This is what a moving avatar calls every step.
+     */
+    public void setTarget(int x, int y) {
+        int cell = cell(x, y);
+        if (targetCount == 1 && targets[0] == cell) {
+            return;
+        }
+        int[] old = Arrays.copyOf(targets, targetCount);
+        addTarget(x, y);
+        for (int previous : old) {
+            if (previous != cell) {
+                removeTarget(previous / height, previous % height);
+            }
+        }
+    }
+
+    /**
+     * Adds a target. Tiles that are now closer to a target than before are updated.
+     */
+    public void addTarget(int x, int y) {
+        int cell = cell(x, y);
+        if (target[cell]) {
+            return;
+        }
+        target[cell] = true;
+        if (targetCount == targets.length) {
+            targets = Arrays.copyOf(targets, targetCount * 2);
+        }
+        targets[targetCount++] = cell;
+        if (stale || !isPassable(cell)) {
+            return;
+        }
+        distance[cell] = 0;
+        int tail = 0;
+        queue[tail++] = cell;
+        relaxFrom(tail);
+    }
+
+    /**
+     * Removes a target. Tiles whose shortest routes all ended there get their distance
+     * recomputed from the rest of the map.
+     */
+    public void removeTarget(int x, int y) {
+        int cell = cell(x, y);
+        if (!target[cell]) {
+            return;
+        }
+        target[cell] = false;
+        for (int i = 0; i < targetCount; i++) {
+            if (targets[i] == cell) {
+                targets[i] = targets[--targetCount];
+                break;
+            }
+        }
+        if (!stale && distance[cell] != UNREACHABLE) {
+            repairRemoval(cell);
+        }
+    }
+
+    /**
+     * Marks the map out of date after passability changed; it is rebuilt on next use.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    public int maxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Steps from (x, y) to the nearest target, or UNREACHABLE if none can be reached within
+     * the maximum distance.
+     */
+    public int distance(int x, int y) {
+        ensureBuilt();
+        return distance[cell(x, y)];
+    }
+
+    /**
+     * The neighbouring tile an agent at (x, y) should move to, as a packed cell
+     * (x * height + y), or -1 if it is on a target or cannot reach one. Ties go to the
+     * first of east, west, north and south.
+     */
+    public int nextStep(int x, int y) {
+        ensureBuilt();
+        int cell = cell(x, y);
+        int here = distance[cell];
+        if (here == 0 || here == UNREACHABLE) {
+            return -1;
+        }
+        if (x + 1 < width && distance[cell + height] < here) {
+            return cell + height;
+        }
+        if (x > 0 && distance[cell - height] < here) {
+            return cell - height;
+        }
+        if (y + 1 < height && distance[cell + 1] < here) {
+            return cell + 1;
+        }
+        if (y > 0 && distance[cell - 1] < here) {
+            return cell - 1;
+        }
+        return -1;
+    }
+
+    private int cell(int x, int y) {
+        if (!tiles.inBounds(x, y)) {
+            throw new IllegalArgumentException("tile out of bounds: " + x + ", " + y);
+        }
+        return x * height + y;
+    }
+
+    private void ensureBuilt() {
+        if (!stale) {
+            return;
+        }
+        stale = false;
+        Arrays.fill(distance, UNREACHABLE);
+        int tail = 0;
+        for (int i = 0; i < targetCount; i++) {
+            if (isPassable(targets[i])) {
+                distance[targets[i]] = 0;
+                queue = ensureCapacity(queue, tail);
+                queue[tail++] = targets[i];
+            }
+        }
+        relaxFrom(tail);
+    }
+
+    /**
+     * Breadth-first search from the first tail cells of queue, lowering any distance that
+     * improves. The seeds must share the smallest distance among them for FIFO order to
+     * settle cells in distance order.
+     */
+    private void relaxFrom(int tail) {
+        int head = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = distance[cell] + 1;
+            if (next > maxDistance) {
+                break;
+            }
+            int x = cell / height;
+            int y = cell % height;
+            for (int n = 0; n < 4; n++) {
+                int neighbour = neighbour(x, y, n);
+                if (neighbour >= 0 && distance[neighbour] > next && isPassable(neighbour)) {
+                    distance[neighbour] = next;
+                    queue = ensureCapacity(queue, tail);
+                    queue[tail++] = neighbour;
+                }
+            }
+            // Compact the queue rather than letting it grow with the whole search.
+            if (head > 4096 && head * 2 > tail) {
+                System.arraycopy(queue, head, queue, 0, tail - head);
+                tail -= head;
+                head = 0;
+            }
+        }
+    }
+
+    /**
+     * Repairs distances after the target at cell was removed. First collects, in order of
+     * old distance, every tile left without a neighbour one step closer to a target; then
+     * gives each the best distance through unaffected neighbours and settles them with
+     * Dijkstra's algorithm, since those starting distances differ.
+     */
+    private void repairRemoval(int removed) {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(affected, 0);
+            epoch = 1;
+        }
+        int tail = 0;
+        queue[tail++] = removed;
+        affected[removed] = epoch;
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            int x = cell / height;
+            int y = cell % height;
+            for (int n = 0; n < 4; n++) {
+                int neighbour = neighbour(x, y, n);
+                if (neighbour >= 0 && affected[neighbour] != epoch && !target[neighbour]
+                        && distance[neighbour] == distance[cell] + 1 && !isSupported(neighbour)) {
+                    affected[neighbour] = epoch;
+                    queue = ensureCapacity(queue, tail);
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+
+        if (hasTargetNeighbour(removed)) {
+            // Every tile is at most one step further from the adjacent target than it was
+            // from the removed one, and affected tiles got strictly further, so each is
+            // exactly one step further. This is the common case of a target taking a step.
+            for (int i = 0; i < tail; i++) {
+                int cell = queue[i];
+                distance[cell] = distance[cell] >= maxDistance ? UNREACHABLE : distance[cell] + 1;
+            }
+            return;
+        }
+
+        heapSize = 0;
+        for (int i = 0; i < tail; i++) {
+            int cell = queue[i];
+            int best = UNREACHABLE;
+            int x = cell / height;
+            int y = cell % height;
+            for (int n = 0; n < 4; n++) {
+                int neighbour = neighbour(x, y, n);
+                if (neighbour >= 0 && affected[neighbour] != epoch
+                        && distance[neighbour] != UNREACHABLE) {
+                    best = Math.min(best, distance[neighbour] + 1);
+                }
+            }
+            distance[cell] = best > maxDistance ? UNREACHABLE : best;
+            if (distance[cell] != UNREACHABLE) {
+                push((long) best << 32 | cell);
+            }
+        }
+        while (heapSize > 0) {
+            long top = pop();
+            int cell = (int) top;
+            int d = (int) (top >>> 32);
+            if (d != distance[cell] || d == maxDistance) {
+                continue;
+            }
+            int x = cell / height;
+            int y = cell % height;
+            for (int n = 0; n < 4; n++) {
+                int neighbour = neighbour(x, y, n);
+                if (neighbour >= 0 && affected[neighbour] == epoch && distance[neighbour] > d + 1) {
+                    distance[neighbour] = d + 1;
+                    push((long) (d + 1) << 32 | neighbour);
+                }
+            }
+        }
+    }
+
+    private boolean hasTargetNeighbour(int cell) {
+        int x = cell / height;
+        int y = cell % height;
+        for (int n = 0; n < 4; n++) {
+            int neighbour = neighbour(x, y, n);
+            if (neighbour >= 0 && target[neighbour] && distance[neighbour] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether a tile has an unaffected neighbour one step closer to a target. */
+    private boolean isSupported(int cell) {
+        int x = cell / height;
+        int y = cell % height;
+        for (int n = 0; n < 4; n++) {
+            int neighbour = neighbour(x, y, n);
+            if (neighbour >= 0 && affected[neighbour] != epoch
+                    && distance[neighbour] == distance[cell] - 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The n-th of the four neighbours of (x, y) as a packed cell, or -1 off the grid. */
+    private int neighbour(int x, int y, int n) {
+        switch (n) {
+            case 0: return x + 1 < width ? (x + 1) * height + y : -1;
+            case 1: return x > 0 ? (x - 1) * height + y : -1;
+            case 2: return y + 1 < height ? x * height + y + 1 : -1;
+            default: return y > 0 ? x * height + y - 1 : -1;
+        }
+    }
+
+    private boolean isPassable(int cell) {
+        return Tileset.isPassable(tiles.id(cell / height, cell % height));
+    }
+
+    private static int[] ensureCapacity(int[] array, int size) {
+        return size < array.length ? array : Arrays.copyOf(array, array.length * 2);
+    }
+
+    private void push(long key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= key) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = key;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,245 @@
+package core;
+
+import edu.princeton.cs.algs4.StdDraw;
+
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a screen of the game: drains typed keys, advances the simulation at a fixed tick
+ * rate, and redraws only when a key or a tick changed something, at most maxFps times a
+ * second. Between ticks with nothing to do the thread parks instead of spinning, so an
+ * idle menu or game costs close to no CPU.
+ *
+ * If the loop falls behind, for example while a slow frame renders, it runs the missed
+ * ticks back to back, but never more than MAX_CATCH_UP at once; beyond that the missed
+ * time is dropped rather than replayed.
+ */
+public class GameLoop {
+    public static final int DEFAULT_TICKS_PER_SECOND = 60;
+    public static final int DEFAULT_MAX_FPS = 60;
+    /** Most ticks run back to back to catch up before the backlog is dropped. */
+    private static final int MAX_CATCH_UP = 5;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** One screen run by the loop. Every method is called on the loop's thread. */
+    public interface Game {
+        /** Handles one typed key. Returns whether anything on screen may have changed. */
+        boolean onKey(char key)
+                throws IOException, UnsupportedAudioFileException, LineUnavailableException;
+
+        /** Advances the simulation one tick. Returns whether anything may have changed. */
+        default boolean onTick() {
+            return false;
+        }
+
+        /** Draws the screen. */
+        void render();
+
+        /** Whether the loop should keep going. Checked after every key and tick. */
+        boolean isRunning();
+    }
+
+    /** Where typed keys come from; StdDraw unless a test supplies its own. */
+    public interface Keys {
+        boolean hasNextKeyTyped();
+
+        char nextKeyTyped();
+    }
+
+    private static final Keys STD_DRAW_KEYS = new Keys() {
+        @Override
+        public boolean hasNextKeyTyped() {
+            return StdDraw.hasNextKeyTyped();
+        }
+
+        @Override
+        public char nextKeyTyped() {
+            return StdDraw.nextKeyTyped();
+        }
+    };
+
+    private final long tickNanos;
+    private final long frameNanos;
+    private final Keys keys;
+
+    private long ticks;
+    private long frames;
+    private long frameTimeTotal;
+    private long worstFrameTime;
+    private long busyNanos;
+    private long wallNanos;
+    private long cpuNanos;
+    private boolean running;
+    private long runStart;
+    private long runCpuStart;
+
+    public GameLoop() {
+        this(DEFAULT_TICKS_PER_SECOND, DEFAULT_MAX_FPS);
+    }
+
+    public GameLoop(int ticksPerSecond, int maxFps) {
+        this(ticksPerSecond, maxFps, STD_DRAW_KEYS);
+    }
+
+    /**
+     * @param ticksPerSecond simulation ticks per second; keys are also polled this often
+     * @param maxFps most frames drawn per second
+     * @param keys source of typed keys
+     */
+    public GameLoop(int ticksPerSecond, int maxFps, Keys keys) {
+        if (ticksPerSecond <= 0 || maxFps <= 0) {
+            throw new IllegalArgumentException("rates must be positive: " + ticksPerSecond
+                    + " ticks, " + maxFps + " fps");
+        }
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.frameNanos = 1_000_000_000L / maxFps;
+        this.keys = keys;
+    }
+
+    /**
+     * Runs game until isRunning returns false. The first frame is drawn straight away.
+     * @throws IllegalStateException if this loop is already running; a screen opened from
+     *                               a key handler needs a loop of its own
+     */
+    public void run(Game game)
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        if (running) {
+            throw new IllegalStateException("this GameLoop is already running");
+        }
+        running = true;
+        runStart = System.nanoTime();
+        runCpuStart = threadCpuTime();
+        try {
+            loop(game);
+        } finally {
+            running = false;
+            wallNanos += System.nanoTime() - runStart;
+            long cpuEnd = threadCpuTime();
+            if (runCpuStart >= 0 && cpuEnd >= 0) {
+                cpuNanos += cpuEnd - runCpuStart;
+            }
+        }
+    }
+
+    private void loop(Game game)
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        long start = runStart;
+        long nextTick = start;
+        long lastFrame = start - frameNanos;
+        boolean dirty = true;
+        while (game.isRunning()) {
+            long awake = System.nanoTime();
+            while (keys.hasNextKeyTyped() && game.isRunning()) {
+                dirty |= game.onKey(keys.nextKeyTyped());
+            }
+            int caughtUp = 0;
+            while (awake >= nextTick && game.isRunning()) {
+                dirty |= game.onTick();
+                ticks++;
+                nextTick += tickNanos;
+                if (++caughtUp == MAX_CATCH_UP) {
+                    nextTick = Math.max(nextTick, awake + tickNanos);
+                }
+            }
+            if (!game.isRunning()) {
+                busyNanos += System.nanoTime() - awake;
+                break;
+            }
+            long now = System.nanoTime();
+            if (dirty && now - lastFrame >= frameNanos) {
+                game.render();
+                long drawn = System.nanoTime();
+                recordFrame(drawn - now);
+                lastFrame = now;
+                dirty = false;
+                now = drawn;
+            }
+            busyNanos += now - awake;
+            long wake = dirty ? Math.min(nextTick, lastFrame + frameNanos) : nextTick;
+            if (wake > now) {
+                LockSupport.parkNanos(wake - now);
+            }
+        }
+    }
+
+    private void recordFrame(long nanos) {
+        frames++;
+        frameTimeTotal += nanos;
+        worstFrameTime = Math.max(worstFrameTime, nanos);
+    }
+
+    /** Ticks run since the loop was created, over every run call. */
+    public long tickCount() {
+        return ticks;
+    }
+
+    /** Frames drawn since the loop was created, over every run call. */
+    public long frameCount() {
+        return frames;
+    }
+
+    /** Average time render took, in nanoseconds, or 0 before the first frame. */
+    public long averageFrameNanos() {
+        return frames == 0 ? 0 : frameTimeTotal / frames;
+    }
+
+    /** Longest time a single render took, in nanoseconds. */
+    public long worstFrameNanos() {
+        return worstFrameTime;
+    }
+
+    /**
+     * Fraction of the time spent in run, including a run still in progress, that the loop
+     * was awake rather than parked, in [0, 1]. Time spent inside a nested loop started
+     * from a key handler counts as awake.
+     */
+    public double busyFraction() {
+        long wall = wallNanos();
+        return wall == 0 ? 0 : Math.min(1, (double) busyNanos / wall);
+    }
+
+    /**
+     * CPU time the loop's thread used in run, including a run still in progress, as a
+     * fraction of the wall-clock time, or -1 if the JVM does not measure thread CPU time.
+     * While a run is in progress, call this from the loop's thread, such as from a key
+     * handler.
+     */
+    public double cpuFraction() {
+        if (!THREADS.isCurrentThreadCpuTimeSupported() || !THREADS.isThreadCpuTimeEnabled()) {
+            return -1;
+        }
+        long cpu = cpuNanos;
+        if (running && runCpuStart >= 0) {
+            cpu += threadCpuTime() - runCpuStart;
+        }
+        long wall = wallNanos();
+        return wall == 0 ? 0 : (double) cpu / wall;
+    }
+
+    /** One line with the frame, busy and CPU counters, for printing. */
+    public String summary() {
+        double cpu = cpuFraction();
+        return String.format("%d frames, %.2f ms average, %.2f ms worst, %.0f%% busy, %s cpu",
+                frames, averageFrameNanos() / 1e6, worstFrameNanos() / 1e6,
+                busyFraction() * 100, cpu < 0 ? "unknown" : String.format("%.0f%%", cpu * 100));
+    }
+
+    /** Wall-clock time spent in run, including a run still in progress. */
+    private long wallNanos() {
+        return running ? wallNanos + System.nanoTime() - runStart : wallNanos;
+    }
+
+    /** CPU time of the current thread, or -1 if the JVM cannot tell. */
+    private static long threadCpuTime() {
+        if (THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled()) {
+            return THREADS.getCurrentThreadCpuTime();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,37 @@
+package core;
+
+import tileengine.TileGrid;
+import utils.RandomStreams;
+
+/**
+ * State shared by the stages of one generation run: the world being built and the seed it
+ * is built from. Stages that need randomness should draw from their own stage of
+ * streams() so that adding or replacing a stage does not change what the others produce.
+ */
+public class GenerationContext {
+    private final World world;
+    private final long seed;
+    private final RandomStreams streams;
+
+    GenerationContext(World world, long seed) {
+        this.world = world;
+        this.seed = seed;
+        this.streams = new RandomStreams(seed);
+    }
+
+    public World world() {
+        return world;
+    }
+
+    public TileGrid tiles() {
+        return world.getTileGrid();
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public RandomStreams streams() {
+        return streams;
+    }
+}
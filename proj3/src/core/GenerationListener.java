@@ -0,0 +1,10 @@
+package core;
+
+/**
+ * Receives metrics for every stage a GenerationPipeline runs. When worlds are generated
+ * through WorldGenerator this is called concurrently from pool threads, so implementations
+ * must then be thread-safe.
+ */
+public interface GenerationListener {
+    void stageCompleted(StageMetrics metrics);
+}
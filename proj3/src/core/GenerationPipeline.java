@@ -0,0 +1,162 @@
+package core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Ordered list of GenerationStages that World.generateGrid runs. The standard pipeline
+ * reproduces the classic generator; stages can be replaced, removed or added by name.
+ *
+ * When at least one GenerationListener is registered, each stage is measured for wall
+ * time, bytes allocated on the current thread and tiles written, and the listeners are
+ * told after the stage finishes. Without listeners the stages run unmeasured.
+ */
+public class GenerationPipeline {
+    public static final String RESET = "reset";
+    public static final String ROOMS = "rooms";
+    public static final String HALLWAYS = "hallways";
+    public static final String BORDER = "border";
+    public static final String WALLS = "walls";
+    public static final String AVATAR = "avatar";
+    /** Name of the optional stage added by ConnectivityValidator.stage. */
+    public static final String CONNECTIVITY = "connectivity";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final List<GenerationStage> stages = new ArrayList<>();
+    private final List<GenerationListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates an empty pipeline.
+     */
+    public GenerationPipeline() {
+    }
+
+    /**
+     * Returns a new pipeline with the stages of the classic generator: reset the grid,
+     * place rooms, connect them with hallways, wall the border, seal open floor with walls
+     * and place the avatar.
+     */
+    public static GenerationPipeline standard() {
+        return new GenerationPipeline()
+                .add(GenerationStage.of(RESET, c -> c.world().resetGrid(c.seed(), c.streams())))
+                .add(GenerationStage.of(ROOMS, c -> c.world().roomGenerator()))
+                .add(GenerationStage.of(HALLWAYS, c -> c.world().hallwayGenerator()))
+                .add(GenerationStage.of(BORDER, c -> c.world().paintBorder()))
+                .add(GenerationStage.of(WALLS, c -> c.world().finalizeWalls()))
+                .add(GenerationStage.of(AVATAR, c -> c.world().initiaizeAvatar()));
+    }
+
+    /**
+     * Appends a stage.
+     * @return this pipeline
+     */
+    public GenerationPipeline add(GenerationStage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("stage must not be null");
+        }
+        stages.add(stage);
+        return this;
+    }
+
+    /**
+     * Inserts a stage directly after the stage with the given name.
+     * @return this pipeline
+     * @throws IllegalArgumentException if there is no stage with that name
+     */
+    public GenerationPipeline addAfter(String name, GenerationStage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("stage must not be null");
+        }
+        stages.add(indexOf(name) + 1, stage);
+        return this;
+    }
+
+    /**
+     * Swaps the stage with the given name for another one, keeping its position.
+     * @return this pipeline
+     * @throws IllegalArgumentException if there is no stage with that name
+     */
+    public GenerationPipeline replace(String name, GenerationStage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("stage must not be null");
+        }
+        stages.set(indexOf(name), stage);
+        return this;
+    }
+
+    /**
+     * @return this pipeline
+     * @throws IllegalArgumentException if there is no stage with that name
+     */
+    public GenerationPipeline remove(String name) {
+        stages.remove(indexOf(name));
+        return this;
+    }
+
+    public List<String> stageNames() {
+        List<String> names = new ArrayList<>(stages.size());
+        for (GenerationStage stage : stages) {
+            names.add(stage.name());
+        }
+        return names;
+    }
+
+    public void addListener(GenerationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(GenerationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Runs every stage in order on the world.
+     */
+    public void run(World world, long seed) {
+        GenerationContext context = new GenerationContext(world, seed);
+        for (GenerationStage stage : stages) {
+            if (listeners.isEmpty()) {
+                stage.run(context);
+                continue;
+            }
+            long writesBefore = world.getTileGrid().writeCount();
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            stage.run(context);
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+            StageMetrics metrics = new StageMetrics(stage.name(), seed, elapsed,
+                    allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore,
+                    world.getTileGrid().writeCount() - writesBefore);
+            for (GenerationListener listener : listeners) {
+                listener.stageCompleted(metrics);
+            }
+        }
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < stages.size(); i++) {
+            if (stages.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("no stage named " + name + " in " + stageNames());
+    }
+
+    /** Bytes allocated so far by the current thread, or -1 if the JVM cannot tell. */
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean sunThreads
+                && sunThreads.isThreadAllocatedMemorySupported()
+                && sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return sunThreads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,34 @@
+package core;
+
+import java.util.function.Consumer;
+
+/**
+ * One named step of world generation, such as placing rooms or sealing walls. Stages run
+ * in order on the same World and see each other's results through the GenerationContext.
+ */
+public interface GenerationStage {
+    /** Name used in metrics and to find the stage with GenerationPipeline.replace. */
+    String name();
+
+    void run(GenerationContext context);
+
+    /**
+     * Wraps a lambda as a stage.
+     */
+    static GenerationStage of(String name, Consumer<GenerationContext> action) {
+        if (name == null || action == null) {
+            throw new IllegalArgumentException("stage name and action must not be null");
+        }
+        return new GenerationStage() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void run(GenerationContext context) {
+                action.accept(context);
+            }
+        };
+    }
+}
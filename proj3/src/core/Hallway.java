@@ -4,7 +4,7 @@ public class Hallway {
     public static final int WIDTH = 1;
     private Room from;
     private Room to;
-    private int distance;
+    private int distance; // squared distance between the room centers
     public Hallway(Room from, Room to, int distance) {
         this.from = from;
         this.to = to;
@@ -0,0 +1,611 @@
+package core;
+
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two-level route planner in the style of HPA*: long routes are planned on a small graph of
+ * portals built from the rooms and hallways generation already made, and only the first
+ * leg is searched tile by tile.
+ *
+ * Each room gets a portal, the passable tile nearest its center, and so does every
+ * BUCKET x BUCKET square that has no room portal but some passable tile, so corridors far
+ * from rooms are covered too. Every hallway becomes an edge between the portals of its
+ * two rooms, and so does every pair of portals within LINK_RANGE steps of each other.
+ * Edges are weighted with the exact walking distance between their portals, found once
+ * with grid searches when the planner is built. A query links each end to the few portals
+ * nearest it, runs A* over that small graph, and returns the portals to pass through
+ * together with a tile-by-tile path to the first one. Agents follow that path and ask
+ * again, or refine the next leg themselves, once they arrive.
+ *
+ * Routes are not always the shortest possible, since they pass through portals, but the
+ * abstract search visits a few hundred portals at most instead of thousands of tiles.
+ * Ends closer than DIRECT_RANGE apart, or that no route through the graph joins, are
+ * routed with a plain grid search instead.
+ *
+ * The planner covers a single World. A ChunkedWorld has no planner of its own: the doors
+ * on its chunk edges would make natural portals between per-chunk graphs, but chunks are
+ * evicted and regenerated independently, and no chunk-level layer keeps such a graph.
+ *
+ * The graph is a snapshot: build a new planner after regenerating or carving the world.
+ * Not thread-safe.
+ */
+public class HierarchicalPathFinder {
+    /** Ends at most this far apart (Manhattan) are routed directly on the grid. */
+    public static final int DIRECT_RANGE = 32;
+    /** Side of the buckets used to find the portal nearest a tile. */
+    private static final int BUCKET = 16;
+    /** Portals at most this many steps apart are joined by an edge. */
+    private static final int LINK_RANGE = 48;
+    /** Each end of a query is linked to at most this many of the portals nearest it. */
+    private static final int ENDS = 4;
+
+    /**
+     * A planned route. Cells are packed as x * height + y, like PathFinder's.
+     */
+    public static class Route {
+        private final int[] waypoints;
+        private final int[] firstSegment;
+        private final int estimatedLength;
+
+        Route(int[] waypoints, int[] firstSegment, int estimatedLength) {
+            this.waypoints = waypoints;
+            this.firstSegment = firstSegment;
+            this.estimatedLength = estimatedLength;
+        }
+
+        /** Portals to walk through in order, ending with the target itself. */
+        public int[] waypoints() {
+            return waypoints;
+        }
+
+        /**
+         * Tile-by-tile path from the start to the first waypoint, start included. For
+         * direct routes this is the whole route.
+         */
+        public int[] firstSegment() {
+            return firstSegment;
+        }
+
+        /**
+         * Length of the route through the graph: the walking distance to the first portal,
+         * the precomputed portal-to-portal costs, and the walking distance from the last
+         * portal to the target. Waypoints skipped along the way only make the walk shorter.
+         */
+        public int estimatedLength() {
+            return estimatedLength;
+        }
+    }
+
+    private final TileGrid tiles;
+    private final int height;
+    private final PathFinder grid;
+
+    // Abstract graph: portal cell per node, rooms first in world order (-1 if the room has
+    // no passable tile) and then buckets, and edges
+    // in compressed rows: the edges of node i are edgeTo/edgeCost[edgeStart[i]..edgeStart[i+1]).
+    private final int nodes;
+    private final int[] portal;
+    private final int[] edgeStart;
+    private final int[] edgeTo;
+    private final int[] edgeCost;
+
+    // Portals bucketed by position: the nodes in bucket b are
+    // bucketNodes[bucketStart[b]..bucketStart[b+1]).
+    private final int columns;
+    private final int rows;
+    private final int[] bucketStart;
+    private final int[] bucketNodes;
+
+    // Node whose portal is at each cell, or -1, and breadth-first search scratch over cells.
+    private final int[] nodeAt;
+    private final int[] reach;
+    private final int[] reachStamp;
+    private int reachSearch;
+    private int[] queue = new int[256];
+
+    // The ends of a query: the portals found around the start with their distances from
+    // it, and around the target, whose distances to it are kept per node in exitCost, -1
+    // for every other node.
+    private final int[] entryNode;
+    private final int[] entryCost;
+    private final int[] exitNode;
+    private final int[] exitCost;
+
+    // Abstract search scratch, stamped per search like PathFinder's.
+    private final int[] g;
+    private final int[] parent;
+    private final int[] seen;
+    private final int[] closed;
+    private int search;
+    private long[] heap = new long[64];
+
+    // Edge list while building.
+    private int[] buildFrom = new int[64];
+    private int[] buildTo = new int[64];
+    private int[] buildCost = new int[64];
+    private int edgeCount;
+    private int heapSize; public static long POPS;
+
+    /**
+     * Builds the abstract graph from the world's current rooms, hallways and tiles.
+     */
+    public HierarchicalPathFinder(World world) {
+        this.tiles = world.getTileGrid();
+        this.height = tiles.height();
+        this.grid = new PathFinder(tiles);
+        List<Room> rooms = world.rooms;
+        columns = (tiles.width() + BUCKET - 1) / BUCKET;
+        rows = (height + BUCKET - 1) / BUCKET;
+        int[] portals = new int[rooms.size() + columns * rows];
+        boolean[] covered = new boolean[columns * rows];
+        int count = 0;
+        for (Room room : rooms) {
+            int cell = findPortal(room.x, room.y, room.ROOM_WIDTH, room.ROOM_HEIGHT,
+                    room.center[0], room.center[1]);
+            portals[count++] = cell;
+            if (cell >= 0) {
+                covered[bucketOf(cell)] = true;
+            }
+        }
+        // Corridors can run far from any room, and cross each other where no room is. So
+        // every bucket without a room portal gets one of its own, nearest its middle.
+        for (int b = 0; b < columns * rows; b++) {
+            int x0 = b / rows * BUCKET;
+            int y0 = b % rows * BUCKET;
+            int cell = covered[b] ? -1 : findPortal(x0, y0, BUCKET, BUCKET,
+                    x0 + BUCKET / 2, y0 + BUCKET / 2);
+            if (cell >= 0) {
+                portals[count++] = cell;
+            }
+        }
+        nodes = count;
+        portal = Arrays.copyOf(portals, count);
+
+        int cells = tiles.width() * height;
+        nodeAt = new int[cells];
+        Arrays.fill(nodeAt, -1);
+        for (int i = 0; i < nodes; i++) {
+            if (portal[i] >= 0) {
+                nodeAt[portal[i]] = i;
+            }
+        }
+        reach = new int[cells];
+        reachStamp = new int[cells];
+        entryNode = new int[nodes];
+        entryCost = new int[nodes];
+        exitNode = new int[nodes];
+        exitCost = new int[nodes];
+        Arrays.fill(exitCost, -1);
+
+        Map<Room, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            index.put(rooms.get(i), i);
+        }
+        for (Hallway hallway : world.hallways) {
+            Integer a = index.get(hallway.getFrom());
+            Integer b = index.get(hallway.getTo());
+            if (a == null || b == null || a.equals(b) || portal[a] < 0 || portal[b] < 0) {
+                continue;
+            }
+            int d = grid.distance(x(portal[a]), y(portal[a]), x(portal[b]), y(portal[b]));
+            if (d >= 0) {
+                addEdge(a, b, d);
+            }
+        }
+        linkNearbyPortals();
+
+        int[] degree = new int[nodes + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            degree[buildFrom[e] + 1]++;
+            degree[buildTo[e] + 1]++;
+        }
+        for (int i = 0; i < nodes; i++) {
+            degree[i + 1] += degree[i];
+        }
+        edgeStart = degree;
+        edgeTo = new int[edgeCount * 2];
+        edgeCost = new int[edgeCount * 2];
+        int[] fill = Arrays.copyOf(edgeStart, nodes);
+        for (int e = 0; e < edgeCount; e++) {
+            edgeTo[fill[buildFrom[e]]] = buildTo[e];
+            edgeCost[fill[buildFrom[e]]++] = buildCost[e];
+            edgeTo[fill[buildTo[e]]] = buildFrom[e];
+            edgeCost[fill[buildTo[e]]++] = buildCost[e];
+        }
+        buildFrom = null;
+        buildTo = null;
+        buildCost = null;
+
+        bucketStart = new int[columns * rows + 1];
+        for (int i = 0; i < nodes; i++) {
+            if (portal[i] >= 0) {
+                bucketStart[bucketOf(portal[i]) + 1]++;
+            }
+        }
+        for (int b = 0; b < columns * rows; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        bucketNodes = new int[bucketStart[columns * rows]];
+        int[] next = Arrays.copyOf(bucketStart, columns * rows);
+        for (int i = 0; i < nodes; i++) {
+            if (portal[i] >= 0) {
+                bucketNodes[next[bucketOf(portal[i])]++] = i;
+            }
+        }
+
+        g = new int[nodes];
+        parent = new int[nodes];
+        seen = new int[nodes];
+        closed = new int[nodes];
+    }
+
+    /**
+     * Hallways alone give a tree with a few extra loops, while the carved map is far
+     * better connected: rooms overlap and corridors cross. So every portal also gets an
+     * edge to each portal within LINK_RANGE steps, found with one bounded breadth-first
+     * search per portal. Edges are only recorded towards higher-numbered portals, since
+     * the search from the other end finds the same pair.
+     */
+    private void linkNearbyPortals() {
+        for (int i = 0; i < nodes; i++) {
+            if (portal[i] < 0) {
+                continue;
+            }
+            int found = reachPortals(portal[i], LINK_RANGE, nodes, entryNode, entryCost);
+            for (int k = 0; k < found; k++) {
+                if (entryNode[k] > i) {
+                    addEdge(i, entryNode[k], entryCost[k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Breadth-first search from cell out to range steps, which stores in found and
+     * cost the nodes whose portals it reaches, nearest first, and their walking distances
+     * from cell. It stops early once it has found limit portals.
+     * @return the number of portals found
+     */
+    private int reachPortals(int cell, int range, int limit, int[] found, int[] cost) {
+        if (++reachSearch == Integer.MAX_VALUE) {
+            Arrays.fill(reachStamp, 0);
+            reachSearch = 1;
+        }
+        int count = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = cell;
+        reachStamp[cell] = reachSearch;
+        reach[cell] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            int d = reach[current];
+            int node = nodeAt[current];
+            if (node >= 0) {
+                found[count] = node;
+                cost[count++] = d;
+                if (count == limit) {
+                    break;
+                }
+            }
+            if (d == range) {
+                continue;
+            }
+            int x = x(current);
+            int y = y(current);
+            for (int n = 0; n < 4; n++) {
+                int nx = x + (n == 0 ? 1 : n == 1 ? -1 : 0);
+                int ny = y + (n == 2 ? 1 : n == 3 ? -1 : 0);
+                if (!tiles.inBounds(nx, ny)) {
+                    continue;
+                }
+                int next = nx * height + ny;
+                if (reachStamp[next] != reachSearch && Tileset.isPassable(tiles.id(nx, ny))) {
+                    reachStamp[next] = reachSearch;
+                    reach[next] = d + 1;
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail * 2);
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void addEdge(int a, int b, int cost) {
+        if (edgeCount == buildFrom.length) {
+            buildFrom = Arrays.copyOf(buildFrom, edgeCount * 2);
+            buildTo = Arrays.copyOf(buildTo, edgeCount * 2);
+            buildCost = Arrays.copyOf(buildCost, edgeCount * 2);
+        }
+        buildFrom[edgeCount] = a;
+        buildTo[edgeCount] = b;
+        buildCost[edgeCount] = cost;
+        edgeCount++;
+    }
+
+    /**
+     * Plans a route from (fromX, fromY) to (toX, toY).
+     * @return the route, or null if the target cannot be reached or either end is blocked
+     */
+    public Route findRoute(int fromX, int fromY, int toX, int toY) {
+        if (Math.abs(toX - fromX) + Math.abs(toY - fromY) <= DIRECT_RANGE
+                || !tiles.inBounds(fromX, fromY) || !tiles.inBounds(toX, toY)
+                || !Tileset.isPassable(tiles.id(fromX, fromY))
+                || !Tileset.isPassable(tiles.id(toX, toY))) {
+            return direct(fromX, fromY, toX, toY);
+        }
+        int from = fromX * height + fromY;
+        int target = toX * height + toY;
+        // Insert both ends into the graph, as HPA* does: link each to the portals around
+        // it with their exact walking distances, rather than snapping it to the nearest
+        // portal, which may lie behind it.
+        int exits = reachPortals(target, DIRECT_RANGE, ENDS, exitNode, entryCost);
+        for (int k = 0; k < exits; k++) {
+            exitCost[exitNode[k]] = entryCost[k];
+        }
+        int entries = reachPortals(from, DIRECT_RANGE, ENDS, entryNode, entryCost);
+        if (entries == 0) {
+            entries = nearestEntry(fromX, fromY);
+        }
+        if (exits == 0) {
+            exits = nearestExit(toX, toY);
+        }
+        int best = searchGraph(entries, toX, toY);
+        int estimate = best < 0 ? 0 : g[best] + exitCost[best];
+        for (int k = 0; k < exits; k++) {
+            exitCost[exitNode[k]] = -1;
+        }
+        if (best < 0) {
+            return direct(fromX, fromY, toX, toY);
+        }
+
+        int hops = 1;
+        for (int node = best; parent[node] != node; node = parent[node]) {
+            hops++;
+        }
+        int[] route = new int[hops];
+        for (int node = best, i = hops - 1; i >= 0; node = parent[node], i--) {
+            route[i] = node;
+        }
+        // Pull the string: skip a portal whenever the one after it, or the target, is
+        // within LINK_RANGE of the last point kept. Going straight there is never longer
+        // than going through the portal in between, and legs stay short enough to search.
+        int[] waypoints = new int[hops + 1];
+        int count = 0;
+        int at = from;
+        for (int i = 0; i <= hops; i++) {
+            int next = i + 1 < hops ? portal[route[i + 1]] : target;
+            int cell = i < hops ? portal[route[i]] : target;
+            if (i == hops || manhattan(next, x(at), y(at)) > LINK_RANGE) {
+                waypoints[count++] = cell;
+                at = cell;
+            }
+        }
+        waypoints = Arrays.copyOf(waypoints, count);
+        int[] segment = grid.findPath(fromX, fromY, x(waypoints[0]), y(waypoints[0]));
+        if (segment == null) {
+            return direct(fromX, fromY, toX, toY);
+        }
+        return new Route(waypoints, segment, estimate);
+    }
+
+    /** Number of portals in the abstract graph. */
+    public int portalCount() {
+        return bucketNodes.length;
+    }
+
+    private Route direct(int fromX, int fromY, int toX, int toY) {
+        int[] path = grid.findPath(fromX, fromY, toX, toY);
+        if (path == null) {
+            return null;
+        }
+        return new Route(new int[] {toX * height + toY}, path, path.length - 1);
+    }
+
+    /**
+     * A* over the portal graph from every entry at once, each starting at its distance from
+     * the start, to a virtual goal reached from every exit at its distance to the target.
+     * The heuristic is the Manhattan distance from a portal to the target, which never
+     * overestimates a walking distance, so the first route found that no open node can
+     * beat is the shortest through the graph.
+     * @param entries number of entries in entryNode and entryCost
+     * @return the node the best route leaves the graph from, with parent links leading
+     * back to its entry, or -1 if no route through the graph reaches an exit
+     */
+    private int searchGraph(int entries, int toX, int toY) {
+        if (++search == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            search = 1;
+        }
+        heapSize = 0;
+        for (int k = 0; k < entries; k++) {
+            int node = entryNode[k];
+            if (seen[node] != search || entryCost[k] < g[node]) {
+                g[node] = entryCost[k];
+                parent[node] = node;
+                seen[node] = search;
+                push((long) (entryCost[k] + manhattan(portal[node], toX, toY)) << 32 | node);
+            }
+        }
+        int best = -1;
+        long bestLength = Long.MAX_VALUE;
+        while (heapSize > 0) {
+            long key = pop();
+            if (key >>> 32 >= bestLength) {
+                break;
+            }
+            int node = (int) key;
+            if (closed[node] == search) {
+                continue;
+            }
+            closed[node] = search; POPS++;
+            int exit = exitCost[node];
+            if (exit >= 0 && g[node] + exit < bestLength) {
+                bestLength = g[node] + exit;
+                best = node;
+            }
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int next = edgeTo[e];
+                int cost = g[node] + edgeCost[e];
+                if (closed[next] != search && (seen[next] != search || cost < g[next])) {
+                    g[next] = cost;
+                    parent[next] = node;
+                    seen[next] = search;
+                    push((long) (cost + manhattan(portal[next], toX, toY)) << 32 | next);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Makes the portal nearest (x, y) the only entry, for a start with no portal within
+     * DIRECT_RANGE steps.
+     * @return the number of entries, 0 if the nearest portal cannot be reached
+     */
+    private int nearestEntry(int x, int y) {
+        int node = nearestPortal(x, y);
+        int d = node < 0 ? -1 : grid.distance(x, y, x(portal[node]), y(portal[node]));
+        if (d < 0) {
+            return 0;
+        }
+        entryNode[0] = node;
+        entryCost[0] = d;
+        return 1;
+    }
+
+    /** Like nearestEntry, for a target with no portal within DIRECT_RANGE steps. */
+    private int nearestExit(int x, int y) {
+        int node = nearestPortal(x, y);
+        int d = node < 0 ? -1 : grid.distance(x(portal[node]), y(portal[node]), x, y);
+        if (d < 0) {
+            return 0;
+        }
+        exitNode[0] = node;
+        exitCost[node] = d;
+        return 1;
+    }
+
+    /**
+     * Node whose portal is closest to (x, y) by Manhattan distance, found by searching
+     * rings of buckets outward, or -1 if there are no portals.
+     */
+    private int nearestPortal(int x, int y) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        int bx = Math.min(columns - 1, Math.max(0, x / BUCKET));
+        int by = Math.min(rows - 1, Math.max(0, y / BUCKET));
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int cx = bx - ring; cx <= bx + ring; cx++) {
+                if (cx < 0 || cx >= columns) {
+                    continue;
+                }
+                int step = (cx == bx - ring || cx == bx + ring) ? 1 : Math.max(1, 2 * ring);
+                for (int cy = by - ring; cy <= by + ring; cy += step) {
+                    if (cy < 0 || cy >= rows) {
+                        continue;
+                    }
+                    int b = cx * rows + cy;
+                    for (int p = bucketStart[b]; p < bucketStart[b + 1]; p++) {
+                        int node = bucketNodes[p];
+                        int d = Math.abs(x(portal[node]) - x) + Math.abs(y(portal[node]) - y);
+                        if (d < bestDistance) {
+                            bestDistance = d;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            // Anything in a further ring is more than ring * BUCKET away.
+            if (best >= 0 && (long) ring * BUCKET >= bestDistance) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The passable tile in the w by h area at (x0, y0) closest to (cx, cy), or -1 if there
+     * is none.
+     */
+    private int findPortal(int x0, int y0, int w, int h, int cx, int cy) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int x = x0; x < x0 + w; x++) {
+            for (int y = y0; y < y0 + h; y++) {
+                int d = Math.abs(x - cx) + Math.abs(y - cy);
+                if (d < bestDistance && tiles.inBounds(x, y)
+                        && Tileset.isPassable(tiles.id(x, y))) {
+                    bestDistance = d;
+                    best = x * height + y;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int bucketOf(int cell) {
+        return x(cell) / BUCKET * rows + y(cell) / BUCKET;
+    }
+
+    private int x(int cell) {
+        return cell / height;
+    }
+
+    private int y(int cell) {
+        return cell % height;
+    }
+
+    /** Manhattan distance from cell to (x, y). */
+    private int manhattan(int cell, int x, int y) {
+        return Math.abs(x(cell) - x) + Math.abs(y(cell) - y);
+    }
+
+    private void push(long key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= key) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = key;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
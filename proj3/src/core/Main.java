@@ -1,178 +1,292 @@
 package core;
 
+import tileengine.Camera;
 import tileengine.TETile;
 import tileengine.TERenderer;
-import tileengine.Tileset;
 import edu.princeton.cs.algs4.StdDraw;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.awt.*;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 
 public class Main {
+    private static final File SAVE_FILE = new File("./save_data.txt");
+    private static final String EXPLORED_PREFIX = "explored ";
+    private static final Font TITLE_FONT = new Font("Monaco", Font.BOLD, 30);
+    private static final Font HINT_FONT = new Font("Monaco", Font.PLAIN, 20);
     public static void main(String[] args) throws UnsupportedAudioFileException, LineUnavailableException, IOException {
-        StdDraw.setCanvasSize(World.WIDTH * 16, World.HEIGHT * 16);
-        StdDraw.setXscale(0, World.WIDTH);
-        StdDraw.setYscale(0, World.HEIGHT);
+        StdDraw.setCanvasSize(World.DEFAULT_WIDTH * 16, World.DEFAULT_HEIGHT * 16);
+        StdDraw.setXscale(0, World.DEFAULT_WIDTH);
+        StdDraw.setYscale(0, World.DEFAULT_HEIGHT);
         StdDraw.clear(Color.BLACK);
         StdDraw.enableDoubleBuffering();
         displayMainMenu();
     }
     public static void displayMainMenu() throws UnsupportedAudioFileException, LineUnavailableException, IOException {
-        boolean gameRunning = true;
-        while (gameRunning) {
-            StdDraw.clear(Color.BLACK);
-            StdDraw.setFont(new Font("Monaco", Font.BOLD, 30));
-            StdDraw.setPenColor(Color.WHITE);
-            StdDraw.text(World.WIDTH / 2.0, World.HEIGHT * 0.6, "New Game (N)");
-            StdDraw.text(World.WIDTH / 2.0, World.HEIGHT * 0.5, "Load Game (L)");
-            StdDraw.text(World.WIDTH / 2.0, World.HEIGHT * 0.4, "Quit (Q)");
-            StdDraw.show();
-            if (StdDraw.hasNextKeyTyped()) {
-                char key = Character.toLowerCase(StdDraw.nextKeyTyped());
-                switch (key) {
+        new GameLoop().run(new GameLoop.Game() {
+            @Override
+            public boolean onKey(char key)
+                    throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+                switch (Character.toLowerCase(key)) {
                     case 'n' -> startNewGame();
                     case 'l' -> loadGame();
-                    case 'q' -> {
-                        gameRunning = false;
-                        System.exit(0);
+                    case 'e' -> startEndlessGame();
+                    case 'q' -> System.exit(0);
+                    default -> {
+                        System.out.println("Invalid selection! Please enter N, L, E, or Q.");
+                        return false;
                     }
-                    default -> System.out.println("Invalid selection! Please enter N, L, or Q.");
                 }
+                return true;
             }
-        }
+
+            @Override
+            public void render() {
+                StdDraw.clear(Color.BLACK);
+                StdDraw.setFont(TITLE_FONT);
+                StdDraw.setPenColor(Color.WHITE);
+                StdDraw.text(World.DEFAULT_WIDTH / 2.0, World.DEFAULT_HEIGHT * 0.6, "New Game (N)");
+                StdDraw.text(World.DEFAULT_WIDTH / 2.0, World.DEFAULT_HEIGHT * 0.5, "Load Game (L)");
+                StdDraw.text(World.DEFAULT_WIDTH / 2.0, World.DEFAULT_HEIGHT * 0.4, "Endless (E)");
+                StdDraw.text(World.DEFAULT_WIDTH / 2.0, World.DEFAULT_HEIGHT * 0.3, "Quit (Q)");
+                StdDraw.show();
+            }
+
+            @Override
+            public boolean isRunning() {
+                return true;
+            }
+        });
     }
     public static void startNewGame() throws UnsupportedAudioFileException, LineUnavailableException, IOException {
+        long seedValue = promptSeed();
+        World world = new World();
+        world.generateGrid(seedValue);
+        playWorld(world);
+    }
+    /**
+     * Runs the game on a world until the player saves and quits with :q, which also
+     * prints the loop's frame time and CPU counters. Frames are only drawn after a key
+     * changed something.
+     */
+    private static void playWorld(World world)
+            throws UnsupportedAudioFileException, LineUnavailableException, IOException {
+        int screenWidth = Math.min(world.width(), World.DEFAULT_WIDTH);
+        int screenHeight = Math.min(world.height(), World.DEFAULT_HEIGHT);
+        TERenderer ter = new TERenderer();
+        ter.initialize(screenWidth, screenHeight);
+        ter.addOverlay(new VisibilityOverlay(world));
+        Camera camera = new Camera(screenWidth, screenHeight, world.width(), world.height());
+        World.Position start = world.getAvatarPosition();
+        camera.centerOn(start.line, start.column);
+        GameLoop loop = new GameLoop();
+        loop.run(new GameLoop.Game() {
+            private boolean commandMode;
+
+            @Override
+            public boolean onKey(char key)
+                    throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+                if (commandMode) {
+                    if (key == 'q' || key == 'Q') {
+                        saveGame(world);
+                        System.out.println(loop.summary());
+                        System.exit(0);
+                    }
+                    commandMode = false;
+                    return false;
+                }
+                if (key == ':') {
+                    commandMode = true;
+                    return false;
+                }
+                if (key == 'l' || key == 'L') {
+                    world.toggleLineOfSight();
+                } else {
+                    world.moveAvatar(key);
+                }
+                return true;
+            }
+
+            @Override
+            public void render() {
+                World.Position avatar = world.getAvatarPosition();
+                camera.follow(avatar.line, avatar.column);
+                ter.renderFrame(world.getTileGrid(), camera);
+            }
+
+            @Override
+            public boolean isRunning() {
+                return true;
+            }
+        });
+    }
+    private static long promptSeed() throws UnsupportedAudioFileException, LineUnavailableException, IOException {
         StringBuilder seed = new StringBuilder();
-        boolean gameStarted = false;
-        while (!gameStarted) {
-            StdDraw.clear(Color.BLACK);
-            StdDraw.setFont(new Font("Monaco", Font.BOLD, 30));
-            StdDraw.setPenColor(Color.WHITE);
-            StdDraw.text(World.WIDTH / 2.0, World.HEIGHT * 0.8, "Enter Seed:");
-            StdDraw.text(World.WIDTH / 2.0, World.HEIGHT * 0.5, seed.toString());
-            StdDraw.setFont(new Font("Monaco", Font.PLAIN, 20));
-            StdDraw.text(World.WIDTH / 2.0, World.HEIGHT * 0.3, "Press S to start");
-            StdDraw.show();
-            if (StdDraw.hasNextKeyTyped()) {
-                char key = StdDraw.nextKeyTyped();
+        new GameLoop().run(new GameLoop.Game() {
+            private boolean gameStarted;
+
+            @Override
+            public boolean onKey(char key) {
                 if ((key == 'S' || key == 's') && seed.length() > 0) {
                     gameStarted = true;
                 } else if (Character.isDigit(key)) {
                     seed.append(key);
+                    return true;
                 }
+                return false;
             }
-        }
-        long seedValue = Long.parseLong(seed.toString());
-        World world = new World();
-        world.generate(seedValue);
+
+            @Override
+            public void render() {
+                StdDraw.clear(Color.BLACK);
+                StdDraw.setFont(TITLE_FONT);
+                StdDraw.setPenColor(Color.WHITE);
+                StdDraw.text(World.DEFAULT_WIDTH / 2.0, World.DEFAULT_HEIGHT * 0.8, "Enter Seed:");
+                StdDraw.text(World.DEFAULT_WIDTH / 2.0, World.DEFAULT_HEIGHT * 0.5, seed.toString());
+                StdDraw.setFont(HINT_FONT);
+                StdDraw.text(World.DEFAULT_WIDTH / 2.0, World.DEFAULT_HEIGHT * 0.3, "Press S to start");
+                StdDraw.show();
+            }
+
+            @Override
+            public boolean isRunning() {
+                return !gameStarted;
+            }
+        });
+        return Long.parseLong(seed.toString());
+    }
+    /**
+     * Plays an endless ChunkedWorld. The screen stays the size of a default world and
+     * follows the avatar. Endless worlds are not saved; :q prints the loop's counters and
+     * quits.
+     */
+    public static void startEndlessGame() throws UnsupportedAudioFileException, LineUnavailableException, IOException {
+        ChunkedWorld world = new ChunkedWorld(promptSeed());
         TERenderer ter = new TERenderer();
-        ter.initialize(World.WIDTH, World.HEIGHT);
-        boolean inGame = true;
-        boolean commandMode = false;
-        while (inGame) {
-            renderWithLineOfSight(ter, world);
-            if (StdDraw.hasNextKeyTyped()) {
-                char key = StdDraw.nextKeyTyped();
+        ter.initialize(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+        TETile[][] view = new TETile[World.DEFAULT_WIDTH][World.DEFAULT_HEIGHT];
+        GameLoop loop = new GameLoop();
+        loop.run(new GameLoop.Game() {
+            private boolean commandMode;
+
+            @Override
+            public boolean onKey(char key)
+                    throws IOException, UnsupportedAudioFileException, LineUnavailableException {
                 if (commandMode) {
                     if (key == 'q' || key == 'Q') {
-                        saveGame(world);
+                        System.out.println(loop.summary());
                         System.exit(0);
-                    } else {
-                        commandMode = false;
-                    }
-                } else {
-                    if (key == ':') {
-                        commandMode = true;
-                    } else if (key == 'l' || key == 'L') {
-                        world.toggleLineOfSight();
-                    } else {
-                        world.moveAvatar(key);
                     }
+                    commandMode = false;
+                    return false;
                 }
-            }
-        }
-    }
-    private static void renderWithLineOfSight(TERenderer ter, World world) {
-        TETile[][] displayWorld = new TETile[World.WIDTH][World.HEIGHT];
-        for (int x = 0; x < World.WIDTH; x++) {
-            for (int y = 0; y < World.HEIGHT; y++) {
-                if (world.isTileVisible(x, y)) {
-                    displayWorld[x][y] = world.world[x][y];
-                } else {
-                    displayWorld[x][y] = Tileset.NOTHING;
+                if (key == ':') {
+                    commandMode = true;
+                    return false;
                 }
+                world.moveAvatar(key);
+                return true;
             }
-        }
-        ter.renderFrame(displayWorld);
+
+            @Override
+            public void render() {
+                world.fillView(view, world.getAvatarX() - World.DEFAULT_WIDTH / 2,
+                        world.getAvatarY() - World.DEFAULT_HEIGHT / 2);
+                ter.renderFrame(view);
+            }
+
+            @Override
+            public boolean isRunning() {
+                return true;
+            }
+        });
     }
     public static void saveGame(World world) {
-        File f = new File("./save_data.txt");
+        try {
+            writeSave(world, SAVE_FILE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    /**
+     * Writes the seed, the avatar position and every tile of the world, bottom row first,
+     * then a blank line and the explored-tile memory as one bit per tile in base64.
+     */
+    public static void writeSave(World world, File f) throws IOException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(f))) {
             writer.write(world.getSeed() + "\n");
             writer.write(world.getAvatarPosition().line + " " + world.getAvatarPosition().column + "\n");
-            for (int y = 0; y < World.HEIGHT; y++) {
-                for (int x = 0; x < World.WIDTH; x++) {
-                    writer.write(world.toCharacter(world.world[x][y]));
+            for (int y = 0; y < world.height(); y++) {
+                for (int x = 0; x < world.width(); x++) {
+                    writer.write(world.toCharacter(world.getTile(x, y)));
                 }
                 writer.newLine();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.exit(1);
+            writer.newLine();
+            writer.write(EXPLORED_PREFIX);
+            writer.write(Base64.getEncoder().encodeToString(world.getExplored().toByteArray()));
+            writer.newLine();
         }
     }
-    public static void loadGame() throws UnsupportedAudioFileException, LineUnavailableException, IOException {
-        File f = new File("./save_data.txt");
-        if (f.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(f))) {
-                long seed = Long.parseLong(reader.readLine());
-                String[] avatarPos = reader.readLine().split(" ");
-                int avatarX = Integer.parseInt(avatarPos[0]);
-                int avatarY = Integer.parseInt(avatarPos[1]);
-                World world = new World();
-                world.generate(seed);
-                world.setAvatarPosition(new World.Position(avatarX, avatarY));
-                for (int y = 0; y < World.HEIGHT; y++) {
-                    String line = reader.readLine();
-                    for (int x = 0; x < World.WIDTH; x++) {
-                        world.world[x][y] = world.fromCharacter(line.charAt(x));
-                    }
+    /**
+     * Reads a save written by writeSave back into a World. Saves from before explored
+     * memory was stored load with nothing explored.
+     * @throws IOException if the file cannot be read, or has no rows or rows of different
+     *                     lengths
+     */
+    public static World readSave(File f) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(f))) {
+            long seed = Long.parseLong(reader.readLine());
+            String[] avatarPos = reader.readLine().split(" ");
+            int avatarX = Integer.parseInt(avatarPos[0]);
+            int avatarY = Integer.parseInt(avatarPos[1]);
+            // The map size is not stored; it is the number and length of the rows left.
+            List<String> rows = new ArrayList<>();
+            for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+                rows.add(line);
+            }
+            if (rows.isEmpty()) {
+                throw new IOException("corrupt save: no rows");
+            }
+            for (String row : rows) {
+                if (row.length() != rows.get(0).length()) {
+                    throw new IOException("corrupt save: rows differ in length");
                 }
-                TERenderer ter = new TERenderer();
-                ter.initialize(World.WIDTH, World.HEIGHT);
-
-                boolean inGame = true;
-                boolean commandMode = false;
-                while (inGame) {
-                    ter.renderFrame(world.world);
-                    if (StdDraw.hasNextKeyTyped()) {
-                        char key = StdDraw.nextKeyTyped();
-                        if (commandMode) {
-                            if (key == 'q' || key == 'Q') {
-                                saveGame(world);
-                                System.exit(0);
-                            } else {
-                                commandMode = false;
-                            }
-                        } else {
-                            if (key == ':') {
-                                commandMode = true;
-                            } else if (key == 'l' || key == 'L') {
-                                world.toggleLineOfSight();
-                            } else {
-                                world.moveAvatar(key);
-                            }
-                        }
-                    }
+            }
+            World world = new World(rows.get(0).length(), rows.size());
+            world.generateGrid(seed);
+            world.setAvatarPosition(new World.Position(avatarX, avatarY));
+            for (int y = 0; y < world.height(); y++) {
+                String line = rows.get(y);
+                for (int x = 0; x < world.width(); x++) {
+                    world.getTileGrid().set(x, y, world.fromCharacter(line.charAt(x)));
                 }
+            }
+            String explored = reader.readLine();
+            if (explored != null && explored.startsWith(EXPLORED_PREFIX)) {
+                world.getExplored().readByteArray(
+                        Base64.getDecoder().decode(explored.substring(EXPLORED_PREFIX.length())));
+            } else {
+                world.getExplored().clear();
+            }
+            return world;
+        }
+    }
+    public static void loadGame() throws UnsupportedAudioFileException, LineUnavailableException, IOException {
+        File f = SAVE_FILE;
+        if (f.exists()) {
+            try {
+                playWorld(readSave(f));
             } catch (IOException | UnsupportedAudioFileException | LineUnavailableException e) {
                 e.printStackTrace();
                 System.exit(1);
             }
         } else {
             System.out.println("No saved game to load.");
-            displayMainMenu();
         }
     }
 }
@@ -0,0 +1,112 @@
+package core;
+
+import tileengine.TileGrid;
+
+/**
+ * Counts occupied cells of a TileGrid in a two-dimensional Fenwick tree, so World can ask
+ * whether a candidate room rectangle is free in O(log width * log height) instead of
+ * scanning every cell of it, whether the answer is yes or no. The index mirrors the
+ * grid's occupancy flags: build it once from the grid, then report every newly occupied
+ * cell through add.
+ *
+ * Memory is one int per cell on top of the grid's one byte per cell, so World only keeps
+ * an index while it places rooms.
+ */
+public class OccupancyIndex {
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final int[] tree;
+
+    /**
+     * Builds the index from the current occupancy flags of the grid in linear time.
+     * @throws IllegalArgumentException if the grid has too many cells to index
+     */
+    public OccupancyIndex(TileGrid grid) {
+        width = grid.width();
+        height = grid.height();
+        stride = height + 1;
+        long size = (long) (width + 1) * stride;
+        if (size > TileGrid.MAX_CELLS) {
+            throw new IllegalArgumentException("grid of " + width + "x" + height
+                    + " is too large to index");
+        }
+        tree = new int[(int) size];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (grid.isOccupied(x, y)) {
+                    tree[slot(x + 1, y + 1)] = 1;
+                }
+            }
+        }
+        // Turn the raw counts into a Fenwick tree one axis at a time.
+        for (int i = 1; i <= width; i++) {
+            for (int j = 1; j <= height; j++) {
+                int parent = j + (j & -j);
+                if (parent <= height) {
+                    tree[slot(i, parent)] += tree[slot(i, j)];
+                }
+            }
+        }
+        for (int i = 1; i <= width; i++) {
+            int parent = i + (i & -i);
+            if (parent <= width) {
+                for (int j = 1; j <= height; j++) {
+                    tree[slot(parent, j)] += tree[slot(i, j)];
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that the cell at x, y became occupied. Must be called at most once per cell.
+     */
+    public void add(int x, int y) {
+        for (int i = x + 1; i <= width; i += i & -i) {
+            for (int j = y + 1; j <= height; j += j & -j) {
+                tree[slot(i, j)]++;
+            }
+        }
+    }
+
+    /**
+     * Whether no cell in the rectangle from (x0, y0) to (x1, y1), both corners inclusive,
+     * is occupied. The corners must lie inside the grid.
+     */
+    public boolean isFree(int x0, int y0, int x1, int y1) {
+        int count = prefix(x1 + 1, y1 + 1) - prefix(x0, y1 + 1)
+                - prefix(x1 + 1, y0) + prefix(x0, y0);
+        return count == 0;
+    }
+
+    /**
+     * Whether no cell in the rectangle from (x0, y0) to (x1, y1), both corners inclusive,
+     * is occupied, found by scanning the grid's flags. For runtime edits, when World no
+     * longer keeps an index.
+     */
+    static boolean isFree(TileGrid grid, int x0, int y0, int x1, int y1) {
+        for (int x = x0; x <= x1; x++) {
+            for (int y = y0; y <= y1; y++) {
+                if (grid.isOccupied(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Number of occupied cells with x' < x and y' < y. */
+    private int prefix(int x, int y) {
+        int sum = 0;
+        for (int i = x; i > 0; i -= i & -i) {
+            for (int j = y; j > 0; j -= j & -j) {
+                sum += tree[slot(i, j)];
+            }
+        }
+        return sum;
+    }
+
+    private int slot(int i, int j) {
+        return i * stride + j;
+    }
+}
@@ -0,0 +1,277 @@
+package core;
+
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Arrays;
+
+/**
+ * Shortest four-connected routes over a TileGrid, found with A* and jump point search.
+ *
+ * Jump point search only puts the cells where a route may have to turn on the open set:
+ * from each expanded cell it scans along straight lines and stops where a wall ends next
+ * to the line (a forced neighbour) or at the target. Long corridors and open rooms then
+ * cost a few heap operations instead of one per cell, while routes stay as short as
+ * plain A* would find. The heuristic is the Manhattan distance.
+ *
+ * Searches do not allocate per cell. Scores and parents live in int arrays indexed by
+ * packed cell (x * height + y, the TileGrid layout), and a search counter stamped next to
+ * each entry marks it as current, so nothing has to be cleared between searches. The
+ * open set is a binary heap of primitive longs. A PathFinder is not thread-safe; use one
+ * per thread.
+ *
+ * Passability is read from the grid on every search (see Tileset.isPassable), so edits
+ * made between searches are always respected.
+ */
+public class PathFinder {
+    private final TileGrid tiles;
+    private final int width;
+    private final int height;
+
+    private final int[] g;
+    private final int[] parent;
+    private final int[] seen;
+    private final int[] closed;
+    private int search;
+
+    private long[] heapKeys = new long[256];
+    private int[] heapCells = new int[256];
+    private int heapSize;
+
+    private int targetX;
+    private int targetY;
+
+    public PathFinder(TileGrid tiles) {
+        this.tiles = tiles;
+        this.width = tiles.width();
+        this.height = tiles.height();
+        int cells = width * height;
+        g = new int[cells];
+        parent = new int[cells];
+        seen = new int[cells];
+        closed = new int[cells];
+    }
+
+    /**
+     * Returns a shortest route from (fromX, fromY) to (toX, toY) as packed cells, start
+     * first and target last, each one step from the one before. Unpack cells with x and y.
+     * @return the route, or null if the target cannot be reached or either end is blocked
+     */
+    public int[] findPath(int fromX, int fromY, int toX, int toY) {
+        int end = search(fromX, fromY, toX, toY);
+        if (end < 0) {
+            return null;
+        }
+        int[] path = new int[g[end] + 1];
+        int cell = end;
+        int i = path.length - 1;
+        while (true) {
+            int from = parent[cell];
+            // Jump points are joined by straight lines; fill in the cells between them.
+            int dx = Integer.signum(x(from) - x(cell));
+            int dy = Integer.signum(y(from) - y(cell));
+            for (int c = cell; c != from; c += dx * height + dy) {
+                path[i--] = c;
+            }
+            if (from == cell) {
+                path[i] = cell;
+                return path;
+            }
+            cell = from;
+        }
+    }
+
+    /**
+     * Number of steps on a shortest route, or -1 if there is none.
+     */
+    public int distance(int fromX, int fromY, int toX, int toY) {
+        int end = search(fromX, fromY, toX, toY);
+        return end < 0 ? -1 : g[end];
+    }
+
+    public boolean isReachable(int fromX, int fromY, int toX, int toY) {
+        return search(fromX, fromY, toX, toY) >= 0;
+    }
+
+    /** Packs a cell the way findPath returns it. */
+    public int cell(int x, int y) {
+        return x * height + y;
+    }
+
+    public int x(int cell) {
+        return cell / height;
+    }
+
+    public int y(int cell) {
+        return cell % height;
+    }
+
+    /**
+     * Runs one A* search with jump points.
+     * @return the packed target cell, or -1 if it was not reached
+     */
+    private int search(int fromX, int fromY, int toX, int toY) {
+        if (!isPassable(fromX, fromY) || !isPassable(toX, toY)) {
+            return -1;
+        }
+        if (++search == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            search = 1;
+        }
+        targetX = toX;
+        targetY = toY;
+        heapSize = 0;
+        int start = cell(fromX, fromY);
+        int target = cell(toX, toY);
+        open(start, start, 0);
+        while (heapSize > 0) {
+            int current = pop();
+            if (closed[current] == search) {
+                continue;
+            }
+            closed[current] = search;
+            if (current == target) {
+                return current;
+            }
+            expand(current);
+        }
+        return -1;
+    }
+
+    /**
+     * Jumps from the cell in every direction its parent leaves worth exploring: all four
+     * from the start, otherwise straight on and both sides of the direction of travel.
+     */
+    private void expand(int current) {
+        int x = x(current);
+        int y = y(current);
+        int from = parent[current];
+        int dx = Integer.signum(x - x(from));
+        int dy = Integer.signum(y - y(from));
+        if (dx == 0 && dy == 0) {
+            jumpFrom(current, x, y, 1, 0);
+            jumpFrom(current, x, y, -1, 0);
+            jumpFrom(current, x, y, 0, 1);
+            jumpFrom(current, x, y, 0, -1);
+        } else if (dx != 0) {
+            jumpFrom(current, x, y, dx, 0);
+            jumpFrom(current, x, y, 0, 1);
+            jumpFrom(current, x, y, 0, -1);
+        } else {
+            jumpFrom(current, x, y, 0, dy);
+            jumpFrom(current, x, y, 1, 0);
+            jumpFrom(current, x, y, -1, 0);
+        }
+    }
+
+    private void jumpFrom(int current, int x, int y, int dx, int dy) {
+        int jump = dx != 0 ? jumpHorizontal(x, y, dx) : jumpVertical(x, y, dy);
+        if (jump < 0) {
+            return;
+        }
+        int cost = g[current] + Math.abs(x(jump) - x) + Math.abs(y(jump) - y);
+        if (closed[jump] == search || (seen[jump] == search && g[jump] <= cost)) {
+            return;
+        }
+        open(jump, current, cost);
+    }
+
+    /**
+     * Scans along x from (x, y) and returns the first jump point, or -1 on hitting a wall.
+     * A cell is a jump point if a side cell is open while the one behind it was blocked,
+     * since a shortest route may turn there.
+     */
+    private int jumpHorizontal(int x, int y, int dx) {
+        while (true) {
+            x += dx;
+            if (!isPassable(x, y)) {
+                return -1;
+            }
+            if ((x == targetX && y == targetY)
+                    || (isPassable(x, y + 1) && !isPassable(x - dx, y + 1))
+                    || (isPassable(x, y - 1) && !isPassable(x - dx, y - 1))) {
+                return cell(x, y);
+            }
+        }
+    }
+
+    /**
+     * Scans along y. Besides its own forced neighbours, a cell is a jump point if a
+     * horizontal scan from it would find one, because routes may only turn at jump points.
+     */
+    private int jumpVertical(int x, int y, int dy) {
+        while (true) {
+            y += dy;
+            if (!isPassable(x, y)) {
+                return -1;
+            }
+            if ((x == targetX && y == targetY)
+                    || (isPassable(x + 1, y) && !isPassable(x + 1, y - dy))
+                    || (isPassable(x - 1, y) && !isPassable(x - 1, y - dy))
+                    || jumpHorizontal(x, y, 1) >= 0 || jumpHorizontal(x, y, -1) >= 0) {
+                return cell(x, y);
+            }
+        }
+    }
+
+    private boolean isPassable(int x, int y) {
+        return tiles.inBounds(x, y) && Tileset.isPassable(tiles.id(x, y));
+    }
+
+    private void open(int cell, int from, int cost) {
+        g[cell] = cost;
+        parent[cell] = from;
+        seen[cell] = search;
+        long h = Math.abs(x(cell) - targetX) + Math.abs(y(cell) - targetY);
+        // Among equal f, prefer the cell closest to the target; on a grid many cells tie
+        // on f, and this keeps the search heading for the target instead of fanning out.
+        push((cost + h) << 32 | h, cell);
+    }
+
+    // Binary min-heap of cells keyed by (f << 32 | h); stale entries are skipped when popped.
+
+    private void push(long key, int cell) {
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heapKeys[up] <= key) {
+                break;
+            }
+            heapKeys[i] = heapKeys[up];
+            heapCells[i] = heapCells[up];
+            i = up;
+        }
+        heapKeys[i] = key;
+        heapCells[i] = cell;
+    }
+
+    private int pop() {
+        int top = heapCells[0];
+        long lastKey = heapKeys[--heapSize];
+        int lastCell = heapCells[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (heapKeys[child] >= lastKey) {
+                break;
+            }
+            heapKeys[i] = heapKeys[child];
+            heapCells[i] = heapCells[child];
+            i = child;
+        }
+        heapKeys[i] = lastKey;
+        heapCells[i] = lastCell;
+        return top;
+    }
+}
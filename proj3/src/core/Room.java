@@ -8,9 +8,21 @@ public class Room {
     int[] center;
     int x;
     int y;
-    public Room(int widthCode, int heightCode, int x, int y) {
-        ROOM_WIDTH = Math.floorMod(widthCode, World.WIDTH / WIDTH_MAKER) + World.WIDTH / WIDTH_MAKER;
-        ROOM_HEIGHT = Math.floorMod(heightCode, World.HEIGHT / HEIGHT_MAKER) + World.HEIGHT / HEIGHT_MAKER;
+    public Room(int widthCode, int heightCode, int x, int y, int worldWidth, int worldHeight) {
+        this(x, y, sizeFromCode(widthCode, Math.min(worldWidth, World.DEFAULT_WIDTH) / WIDTH_MAKER),
+                sizeFromCode(heightCode, Math.min(worldHeight, World.DEFAULT_HEIGHT) / HEIGHT_MAKER));
+    }
+
+    /**
+     * A room with its lower left corner at x, y and the given size in tiles, walls included.
+     */
+    static Room withSize(int x, int y, int roomWidth, int roomHeight) {
+        return new Room(x, y, roomWidth, roomHeight);
+    }
+
+    private Room(int x, int y, int roomWidth, int roomHeight) {
+        ROOM_WIDTH = roomWidth;
+        ROOM_HEIGHT = roomHeight;
 
         center = new int[2];
         this.x = x;
@@ -18,4 +30,8 @@ public class Room {
         center[0] = x + ROOM_WIDTH / CENTER;
         center[1] = y + ROOM_HEIGHT / CENTER;
     }
+
+    private static int sizeFromCode(int code, int base) {
+        return Math.floorMod(code, base) + base;
+    }
 }
@@ -0,0 +1,105 @@
+package core;
+
+/**
+ * Recursive shadowcasting from one viewer, shared by FieldOfView and VisibilityBatch.
+ * Each of the eight octants around the viewer is scanned row by row outward; a wall
+ * narrows the range of slopes still lit in the rows behind it, so every tile within the
+ * radius is looked at at most once per octant instead of tracing a separate line to each
+ * one. Subclasses say what blocks sight and where lit tiles go.
+ *
+ * Walls block sight but are themselves lit. A tile is in range when its squared distance
+ * from the viewer is at most radius squared. Positions outside the board are never lit.
+ */
+abstract class Shadowcaster {
+    /** Octant transforms (xx, xy, yx, yy) mapping octant-local (dx, dy) to grid offsets. */
+    private static final int[][] OCTANTS = {
+        {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+        {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1},
+    };
+
+    final int width;
+    final int height;
+    final int radius;
+    int originX;
+    int originY;
+
+    Shadowcaster(int width, int height, int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative: " + radius);
+        }
+        this.width = width;
+        this.height = height;
+        this.radius = radius;
+    }
+
+    /** Whether the in-bounds tile at x, y blocks sight. */
+    abstract boolean blocksSight(int x, int y);
+
+    /** Called for every in-range, in-bounds tile visible from the origin, possibly twice. */
+    abstract void light(int x, int y);
+
+    /** Lights everything visible from x, y. Does nothing if x, y is off the board. */
+    void cast(int x, int y) {
+        originX = x;
+        originY = y;
+        if (!inBounds(x, y)) {
+            return;
+        }
+        light(x, y);
+        for (int[] octant : OCTANTS) {
+            castLight(1, 1.0, 0.0, octant[0], octant[1], octant[2], octant[3]);
+        }
+    }
+
+    final boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Lights the rows of one octant from row outward, between slopes start and end
+     * (start >= end), recursing past each run of walls with the narrowed slope range.
+     */
+    private void castLight(int row, double start, double end, int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        int radiusSquared = radius * radius;
+        double newStart = 0;
+        for (int j = row; j <= radius; j++) {
+            boolean blocked = false;
+            for (int dx = -j; dx <= 0; dx++) {
+                int dy = -j;
+                int x = originX + dx * xx + dy * xy;
+                int y = originY + dx * yx + dy * yy;
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) {
+                    continue;
+                }
+                if (end > leftSlope) {
+                    break;
+                }
+                boolean inside = inBounds(x, y);
+                boolean opaque = !inside || blocksSight(x, y);
+                if (inside && dx * dx + dy * dy <= radiusSquared) {
+                    light(x, y);
+                }
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && j < radius) {
+                    blocked = true;
+                    castLight(j + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) {
+                return;
+            }
+        }
+    }
+}
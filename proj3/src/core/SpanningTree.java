@@ -0,0 +1,243 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimum spanning tree over room centers, used to decide which rooms get a hallway.
+ *
+ * Candidate edges come from each room's K nearest neighbours, found through a uniform
+ * bucket grid, rather than from every pair of rooms. The candidates are sorted by integer
+ * squared distance and joined with Kruskal's algorithm over a union-find. If the nearest
+ * neighbour graph happens to be disconnected (tight clusters far apart), K is doubled and
+ * the tree rebuilt; once K reaches the room count every pair is a candidate, so the result
+ * is always a spanning tree.
+ *
+ * Squared distances must fit in an int, as Hallway stores them, which holds for any world
+ * up to 32768 tiles on a side; build rejects rooms spread further apart than that.
+ */
+public class SpanningTree {
+    /** Neighbours per room in the first round; enough for the graph to be connected in practice. */
+    public static final int NEAREST = 8;
+
+    private final List<Room> rooms;
+    private final int n;
+    private final int[] cx;
+    private final int[] cy;
+
+    // Bucket grid over the room centers: rooms in bucket b are order[start[b]..start[b + 1]).
+    private int minX;
+    private int minY;
+    private int cellSize;
+    private int columns;
+    private int rows;
+    private int[] start;
+    private int[] order;
+
+    // Union-find over room indices.
+    private int[] parent;
+    private int[] size;
+
+    private SpanningTree(List<Room> rooms) {
+        this.rooms = rooms;
+        n = rooms.size();
+        cx = new int[n];
+        cy = new int[n];
+        for (int i = 0; i < n; i++) {
+            cx[i] = rooms.get(i).center[0];
+            cy[i] = rooms.get(i).center[1];
+        }
+    }
+
+    /**
+     * Returns the n - 1 hallways of a minimum spanning tree over the rooms' centers, in the
+     * order Kruskal's algorithm accepts them (shortest first, ties broken by room order).
+     * Hallway distances are squared center distances.
+     * @throws IllegalArgumentException if the squared distance between two room centers
+     *                                  can exceed Integer.MAX_VALUE
+     */
+    public static List<Hallway> build(List<Room> rooms) {
+        SpanningTree tree = new SpanningTree(rooms);
+        if (tree.n < 2) {
+            return new ArrayList<>();
+        }
+        tree.buildBuckets();
+        for (int k = NEAREST; ; k *= 2) {
+            List<Hallway> result = tree.kruskal(Math.min(k, tree.n - 1));
+            if (result.size() == tree.n - 1) {
+                return result;
+            }
+        }
+    }
+
+    static long squaredDistance(Room a, Room b) {
+        long dx = a.center[0] - b.center[0];
+        long dy = a.center[1] - b.center[1];
+        return dx * dx + dy * dy;
+    }
+
+    private void buildBuckets() {
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, cx[i]);
+            minY = Math.min(minY, cy[i]);
+            maxX = Math.max(maxX, cx[i]);
+            maxY = Math.max(maxY, cy[i]);
+        }
+        long spanX = maxX - minX;
+        long spanY = maxY - minY;
+        // The keys in kruskal hold a squared distance in their upper half, and the sort is
+        // signed, so it has to stay below 2^31; Hallway keeps it as an int too.
+        if (spanX * spanX + spanY * spanY > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("room centers span " + spanX + " x " + spanY
+                    + " tiles; squared distances would overflow");
+        }
+        long area = (spanX + 1) * (spanY + 1);
+        // About one room per bucket.
+        cellSize = (int) Math.max(1, Math.sqrt((double) area / n));
+        columns = (maxX - minX) / cellSize + 1;
+        rows = (maxY - minY) / cellSize + 1;
+
+        start = new int[columns * rows + 1];
+        for (int i = 0; i < n; i++) {
+            start[bucketOf(i) + 1]++;
+        }
+        for (int b = 0; b < columns * rows; b++) {
+            start[b + 1] += start[b];
+        }
+        order = new int[n];
+        int[] fill = Arrays.copyOf(start, columns * rows);
+        for (int i = 0; i < n; i++) {
+            order[fill[bucketOf(i)]++] = i;
+        }
+    }
+
+    private int bucketOf(int i) {
+        return (cx[i] - minX) / cellSize * rows + (cy[i] - minY) / cellSize;
+    }
+
+    private List<Hallway> kruskal(int k) {
+        // Candidate edges are packed as (squared distance << 32 | edge number) so a primitive
+        // sort orders them by length and then deterministically by discovery order.
+        int[] from = new int[n * k];
+        int[] to = new int[n * k];
+        long[] keys = new long[n * k];
+        int edges = 0;
+        int[] nearest = new int[k];
+        long[] nearestDistance = new long[k];
+        for (int i = 0; i < n; i++) {
+            int found = nearestNeighbours(i, k, nearest, nearestDistance);
+            for (int m = 0; m < found; m++) {
+                from[edges] = i;
+                to[edges] = nearest[m];
+                keys[edges] = nearestDistance[m] << 32 | edges;
+                edges++;
+            }
+        }
+        Arrays.sort(keys, 0, edges);
+
+        parent = new int[n];
+        size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        List<Hallway> result = new ArrayList<>(n - 1);
+        for (int e = 0; e < edges && result.size() < n - 1; e++) {
+            int edge = (int) keys[e];
+            if (union(from[edge], to[edge])) {
+                Room a = rooms.get(from[edge]);
+                Room b = rooms.get(to[edge]);
+                result.add(new Hallway(a, b, (int) (keys[e] >>> 32)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fills nearest with up to k closest other rooms to room i, closest first, searching
+     * rings of buckets outward until no unvisited bucket can hold anything closer.
+     * @return number of neighbours found
+     */
+    private int nearestNeighbours(int i, int k, int[] nearest, long[] nearestDistance) {
+        int found = 0;
+        int bx = (cx[i] - minX) / cellSize;
+        int by = (cy[i] - minY) / cellSize;
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int x = bx - ring; x <= bx + ring; x++) {
+                if (x < 0 || x >= columns) {
+                    continue;
+                }
+                // Only the border of the square belongs to this ring.
+                int step = (x == bx - ring || x == bx + ring) ? 1 : Math.max(1, 2 * ring);
+                for (int y = by - ring; y <= by + ring; y += step) {
+                    if (y < 0 || y >= rows) {
+                        continue;
+                    }
+                    int b = x * rows + y;
+                    for (int p = start[b]; p < start[b + 1]; p++) {
+                        int j = order[p];
+                        if (j == i) {
+                            continue;
+                        }
+                        long dx = cx[i] - cx[j];
+                        long dy = cy[i] - cy[j];
+                        found = insert(j, dx * dx + dy * dy, k, found, nearest, nearestDistance);
+                    }
+                }
+            }
+            // Anything in a further ring is at least ring * cellSize away.
+            long reach = (long) ring * cellSize;
+            if (found == k && reach * reach >= nearestDistance[k - 1]) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /** Insertion into the sorted, bounded neighbour list. */
+    private static int insert(int j, long distance, int k, int found, int[] nearest,
+                              long[] nearestDistance) {
+        if (found == k && distance >= nearestDistance[k - 1]) {
+            return found;
+        }
+        int pos = found == k ? k - 1 : found++;
+        while (pos > 0 && nearestDistance[pos - 1] > distance) {
+            nearest[pos] = nearest[pos - 1];
+            nearestDistance[pos] = nearestDistance[pos - 1];
+            pos--;
+        }
+        nearest[pos] = j;
+        nearestDistance[pos] = distance;
+        return found;
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package core;
+
+/**
+ * Cost of one stage of one generation run.
+ */
+public class StageMetrics {
+    private final String stageName;
+    private final long seed;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    private final long tilesTouched;
+
+    StageMetrics(String stageName, long seed, long elapsedNanos, long allocatedBytes,
+                 long tilesTouched) {
+        this.stageName = stageName;
+        this.seed = seed;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.tilesTouched = tilesTouched;
+    }
+
+    public String stageName() {
+        return stageName;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /** Wall-clock time spent in the stage. */
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Bytes allocated on the generating thread during the stage, or -1 if the JVM does not
+     * support per-thread allocation accounting.
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /** Tile and occupancy writes made to the world's grid during the stage. */
+    public long tilesTouched() {
+        return tilesTouched;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (seed %d): %.3f ms, %d bytes allocated, %d tiles touched",
+                stageName, seed, elapsedNanos / 1e6, allocatedBytes, tilesTouched);
+    }
+}
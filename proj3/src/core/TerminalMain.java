@@ -0,0 +1,133 @@
+package core;
+
+import tileengine.AnsiRenderer;
+import tileengine.Camera;
+
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Plays the game in a terminal, for example over SSH on a machine with no display. Uses
+ * the same keys as the window: WASD to move, L to toggle line of sight, :Q to save and
+ * quit. Frames are drawn with AnsiRenderer, so each step sends only the changed cells.
+ *
+ * The terminal is switched to unbuffered, unechoed input with stty for the length of the
+ * game so keys arrive without Enter. Where stty is unavailable, type each key and Enter.
+ * Usage: TerminalMain seed [columns rows]
+ */
+public class TerminalMain {
+    private static final int DEFAULT_COLUMNS = 80;
+    private static final int DEFAULT_ROWS = 24;
+
+    public static void main(String[] args)
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        if (args.length < 1) {
+            System.err.println("usage: TerminalMain seed [columns rows]");
+            System.exit(2);
+        }
+        long seed = Long.parseLong(args[0]);
+        int columns = args.length > 2 ? Integer.parseInt(args[1]) : DEFAULT_COLUMNS;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ROWS;
+
+        World world = new World();
+        world.generateGrid(seed);
+        world.setSoundEnabled(false);
+        play(world, columns, rows);
+    }
+
+    private static void play(World world, int columns, int rows)
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        AnsiRenderer ansi = new AnsiRenderer(System.out);
+        ansi.addOverlay(new VisibilityOverlay(world));
+        Camera camera = new Camera(Math.min(columns, world.width()),
+                Math.min(rows, world.height()), world.width(), world.height());
+        World.Position start = world.getAvatarPosition();
+        camera.centerOn(start.line, start.column);
+        stty("-icanon -echo");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                ansi.close();
+            } catch (IOException e) {
+                // The terminal is gone; nothing left to restore.
+            }
+            stty("sane");
+        }));
+        GameLoop.Keys keys = new GameLoop.Keys() {
+            @Override
+            public boolean hasNextKeyTyped() {
+                try {
+                    return System.in.available() > 0;
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            public char nextKeyTyped() {
+                try {
+                    return (char) System.in.read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        new GameLoop(GameLoop.DEFAULT_TICKS_PER_SECOND, GameLoop.DEFAULT_MAX_FPS, keys)
+                .run(new GameLoop.Game() {
+                    private boolean commandMode;
+
+                    @Override
+                    public boolean onKey(char key)
+                            throws IOException, UnsupportedAudioFileException,
+                            LineUnavailableException {
+                        if (commandMode) {
+                            if (key == 'q' || key == 'Q') {
+                                Main.saveGame(world);
+                                System.exit(0);
+                            }
+                            commandMode = false;
+                            return false;
+                        }
+                        if (key == ':') {
+                            commandMode = true;
+                        } else if (key == 'l' || key == 'L') {
+                            world.toggleLineOfSight();
+                            return true;
+                        } else if ("wasdWASD".indexOf(key) >= 0) {
+                            world.moveAvatar(key);
+                            return true;
+                        }
+                        return false;
+                    }
+
+                    @Override
+                    public void render() {
+                        World.Position avatar = world.getAvatarPosition();
+                        camera.follow(avatar.line, avatar.column);
+                        try {
+                            ansi.renderFrame(world.getTileGrid(), camera);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+
+                    @Override
+                    public boolean isRunning() {
+                        return true;
+                    }
+                });
+    }
+
+    /** Runs stty against the controlling terminal, ignoring failure. */
+    private static void stty(String settings) {
+        try {
+            new ProcessBuilder("sh", "-c", "stty " + settings + " < /dev/tty 2> /dev/null")
+                    .inheritIO().start().waitFor();
+        } catch (IOException e) {
+            // No stty here; keys then need Enter.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
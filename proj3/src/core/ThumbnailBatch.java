@@ -0,0 +1,165 @@
+package core;
+
+import tileengine.ImageRenderer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes a PNG preview of every seed in a range, for browsing generated worlds without
+ * playing them. Runs headless: worlds are generated in parallel by WorldGenerator and drawn
+ * with ImageRenderer, which never opens a window.
+ */
+public class ThumbnailBatch {
+    /**
+     * PNG compression quality. The JDK writer turns 0.9 into deflate level 1, which encodes
+     * a default-size world about twice as fast as the default level for files roughly 45%
+     * larger; encoding is most of the cost of a thumbnail.
+     */
+    private static final float PNG_QUALITY = 0.9f;
+
+    private final WorldGenerator generator;
+    private final ImageRenderer renderer;
+
+    /**
+     * @param pool pool worlds are generated and drawn on
+     * @param width width of every world in tiles
+     * @param height height of every world in tiles
+     * @param tileSize size of a tile in the images, in pixels
+     */
+    public ThumbnailBatch(ForkJoinPool pool, int width, int height, int tileSize) {
+        this.generator = new WorldGenerator(pool, width, height);
+        this.renderer = new ImageRenderer(tileSize, pool);
+    }
+
+    /**
+     * Writes seed-N.png into directory for every seed N in [fromSeed, toSeed), creating the
+     * directory if needed.
+     * @return counts and timings of the batch
+     */
+    public Stats run(long fromSeed, long toSeed, File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        LongAdder renderNanos = new LongAdder();
+        LongAdder writeNanos = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        long start = System.nanoTime();
+        WorldGenerator.BatchStats generation;
+        try {
+            generation = generator.generate(fromSeed, toSeed, (seed, world) -> {
+                long begin = System.nanoTime();
+                BufferedImage image = renderer.render(world.getTileGrid());
+                long rendered = System.nanoTime();
+                File file = new File(directory, "seed-" + seed + ".png");
+                try {
+                    writePng(image, file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                renderNanos.add(rendered - begin);
+                writeNanos.add(System.nanoTime() - rendered);
+                bytes.add(file.length());
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Stats(generation, System.nanoTime() - start, renderNanos.sum(),
+                writeNanos.sum(), bytes.sum());
+    }
+
+    private static void writePng(BufferedImage image, File file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(PNG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /** Throughput of one batch. Times summed over threads can exceed the elapsed time. */
+    public static class Stats {
+        private final WorldGenerator.BatchStats generation;
+        private final long elapsedNanos;
+        private final long renderNanos;
+        private final long writeNanos;
+        private final long bytes;
+
+        Stats(WorldGenerator.BatchStats generation, long elapsedNanos, long renderNanos,
+              long writeNanos, long bytes) {
+            this.generation = generation;
+            this.elapsedNanos = elapsedNanos;
+            this.renderNanos = renderNanos;
+            this.writeNanos = writeNanos;
+            this.bytes = bytes;
+        }
+
+        public int imageCount() {
+            return generation.worldCount();
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double imagesPerSecond() {
+            return elapsedNanos == 0 ? 0 : imageCount() * 1e9 / elapsedNanos;
+        }
+
+        /** Generation latencies, which do not include drawing or writing. */
+        public WorldGenerator.BatchStats generation() {
+            return generation;
+        }
+
+        /** Bytes of PNG written. */
+        public long bytesWritten() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            int n = Math.max(1, imageCount());
+            return String.format("%d images in %.1f ms (%.0f images/s), per image: generate "
+                            + "p50=%.3f ms, render %.3f ms, encode+write %.3f ms, %.1f KB",
+                    imageCount(), elapsedNanos / 1e6, imagesPerSecond(),
+                    generation.latencyPercentile(50) / 1e6, renderNanos / 1e6 / n,
+                    writeNanos / 1e6 / n, bytes / 1024.0 / n);
+        }
+    }
+
+    /**
+     * Renders a seed range to PNG files on all cores and prints the throughput. Run with
+     * -Djava.awt.headless=true on machines without a display.
+     * Usage: ThumbnailBatch fromSeed toSeed directory [width height [tileSize]]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: ThumbnailBatch fromSeed toSeed directory "
+                    + "[width height [tileSize]]");
+            System.exit(2);
+        }
+        long from = Long.parseLong(args[0]);
+        long to = Long.parseLong(args[1]);
+        File directory = new File(args[2]);
+        int width = args.length > 4 ? Integer.parseInt(args[3]) : World.DEFAULT_WIDTH;
+        int height = args.length > 4 ? Integer.parseInt(args[4]) : World.DEFAULT_HEIGHT;
+        int tileSize = args.length > 5 ? Integer.parseInt(args[5])
+                : ImageRenderer.DEFAULT_TILE_SIZE;
+        Stats stats = new ThumbnailBatch(ForkJoinPool.commonPool(), width, height, tileSize)
+                .run(from, to, directory);
+        System.out.println(stats);
+    }
+}
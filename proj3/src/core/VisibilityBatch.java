@@ -0,0 +1,225 @@
+package core;
+
+import tileengine.TileBitSet;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Line of sight for many viewers at once, such as every guard and monster on the map in
+ * one tick. All viewers share one wall bitset, built from the grid once per change
+ * instead of every viewer decoding tile ids, and each viewer shadowcasts into a small
+ * (2 * radius + 1) square window of bits rather than a full-map set. Large batches are
+ * split across a fork-join pool; the results do not depend on how the work was split.
+ *
+ * Results stay valid until the next compute call. Reading them is thread-safe; compute
+ * itself must not run concurrently with anything else on the same batch.
+ */
+public class VisibilityBatch {
+    /** Viewers per leaf task before the pool stops splitting the batch. */
+    private static final int VIEWERS_PER_TASK = 64;
+
+    private final TileGrid tiles;
+    private final ForkJoinPool pool;
+    private final int radius;
+    private final int side;
+    private final int wordsPerViewer;
+    private final TileBitSet walls;
+    private long wallsVersion = -1;
+
+    private int count;
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private long[] windows = new long[0];
+
+    public VisibilityBatch(TileGrid tiles) {
+        this(tiles, FieldOfView.DEFAULT_RADIUS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param tiles board to look across
+     * @param radius sight radius of every viewer
+     * @param pool pool large batches are computed on
+     */
+    public VisibilityBatch(TileGrid tiles, int radius, ForkJoinPool pool) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative: " + radius);
+        }
+        this.tiles = tiles;
+        this.pool = pool;
+        this.radius = radius;
+        this.side = 2 * radius + 1;
+        this.wordsPerViewer = (side * side + 63) >>> 6;
+        this.walls = new TileBitSet(tiles.width(), tiles.height());
+    }
+
+    /**
+     * Computes what each of count viewers sees; viewer i stands at (xs[i], ys[i]). A
+     * viewer off the board sees nothing.
+     */
+    public void compute(int[] xs, int[] ys, int count) {
+        if (count < 0 || count > xs.length || count > ys.length) {
+            throw new IllegalArgumentException("invalid viewer count: " + count);
+        }
+        refreshWalls();
+        if (this.xs.length < count) {
+            this.xs = new int[count];
+            this.ys = new int[count];
+            windows = new long[count * wordsPerViewer];
+        }
+        System.arraycopy(xs, 0, this.xs, 0, count);
+        System.arraycopy(ys, 0, this.ys, 0, count);
+        Arrays.fill(windows, 0, count * wordsPerViewer, 0L);
+        this.count = count;
+        if (count <= VIEWERS_PER_TASK) {
+            new CastTask(0, count).compute();
+        } else {
+            pool.invoke(new CastTask(0, count));
+        }
+    }
+
+    public int viewerCount() {
+        return count;
+    }
+
+    public int radius() {
+        return radius;
+    }
+
+    /** Whether viewer can see the tile at x, y. */
+    public boolean canSee(int viewer, int x, int y) {
+        checkViewer(viewer);
+        int dx = x - xs[viewer] + radius;
+        int dy = y - ys[viewer] + radius;
+        if (dx < 0 || dx >= side || dy < 0 || dy >= side) {
+            return false;
+        }
+        int bit = dx * side + dy;
+        return (windows[viewer * wordsPerViewer + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /** Whether viewer can see the tile other is standing on. */
+    public boolean canSeeViewer(int viewer, int other) {
+        checkViewer(other);
+        return canSee(viewer, xs[other], ys[other]);
+    }
+
+    /**
+     * Writes into out the indices of every other viewer that viewer can see, and returns
+     * how many there are. out must have room for viewerCount() - 1 entries.
+     */
+    public int visibleViewers(int viewer, int[] out) {
+        checkViewer(viewer);
+        int found = 0;
+        for (int other = 0; other < count; other++) {
+            if (other != viewer && canSee(viewer, xs[other], ys[other])) {
+                out[found++] = other;
+            }
+        }
+        return found;
+    }
+
+    /** Number of tiles viewer can see, including its own. */
+    public int visibleCount(int viewer) {
+        checkViewer(viewer);
+        int total = 0;
+        for (int w = 0; w < wordsPerViewer; w++) {
+            total += Long.bitCount(windows[viewer * wordsPerViewer + w]);
+        }
+        return total;
+    }
+
+    /**
+     * Sets in target every tile viewer can see. target must be the size of the board.
+     * Useful for merging several viewers into one map-sized set.
+     */
+    public void addVisibleTo(int viewer, TileBitSet target) {
+        checkViewer(viewer);
+        if (target.width() != tiles.width() || target.height() != tiles.height()) {
+            throw new IllegalArgumentException("bitset size differs from the board: "
+                    + target.width() + "x" + target.height());
+        }
+        int left = xs[viewer] - radius;
+        int bottom = ys[viewer] - radius;
+        int base = viewer * wordsPerViewer;
+        for (int bit = 0; bit < side * side; bit++) {
+            if ((windows[base + (bit >>> 6)] & (1L << bit)) != 0) {
+                target.set(left + bit / side, bottom + bit % side);
+            }
+        }
+    }
+
+    private void checkViewer(int viewer) {
+        if (viewer < 0 || viewer >= count) {
+            throw new IllegalArgumentException("no such viewer: " + viewer);
+        }
+    }
+
+    /** Rebuilds the shared wall set if the grid has been written since the last build. */
+    private void refreshWalls() {
+        if (wallsVersion == tiles.writeCount()) {
+            return;
+        }
+        walls.clear();
+        int wall = Tileset.WALL.id();
+        for (int x = 0; x < tiles.width(); x++) {
+            for (int y = 0; y < tiles.height(); y++) {
+                if (tiles.id(x, y) == wall) {
+                    walls.set(x, y);
+                }
+            }
+        }
+        wallsVersion = tiles.writeCount();
+    }
+
+    private class CastTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+
+        CastTask(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > VIEWERS_PER_TASK) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new CastTask(lo, mid), new CastTask(mid, hi));
+                return;
+            }
+            WindowCaster caster = new WindowCaster();
+            for (int i = lo; i < hi; i++) {
+                caster.base = i * wordsPerViewer;
+                caster.cast(xs[i], ys[i]);
+            }
+        }
+    }
+
+    /** Shadowcasts against the shared wall set into one viewer's window of bits. */
+    private class WindowCaster extends Shadowcaster {
+        int base;
+
+        WindowCaster() {
+            super(tiles.width(), tiles.height(), VisibilityBatch.this.radius);
+        }
+
+        @Override
+        boolean blocksSight(int x, int y) {
+            return walls.get(x, y);
+        }
+
+        @Override
+        void light(int x, int y) {
+            int bit = (x - originX + radius) * side + (y - originY + radius);
+            windows[base + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+}
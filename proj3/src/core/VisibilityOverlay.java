@@ -0,0 +1,30 @@
+package core;
+
+import tileengine.TETile;
+import tileengine.TileOverlay;
+import tileengine.Tileset;
+
+/**
+ * Fog of war for TERenderer: tiles the avatar sees are drawn as they are, tiles it has
+ * seen before are dimmed, and the rest are blank. Reads the world's visible and explored
+ * sets directly, so it needs no per-frame copy and shows everything while line of sight
+ * is off.
+ */
+public class VisibilityOverlay implements TileOverlay {
+    private final World world;
+
+    public VisibilityOverlay(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public TETile apply(int x, int y, TETile tile) {
+        if (world.isTileVisible(x, y)) {
+            return tile;
+        }
+        if (world.isTileExplored(x, y)) {
+            return Tileset.dimmed(tile);
+        }
+        return Tileset.NOTHING;
+    }
+}
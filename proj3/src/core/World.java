@@ -2,31 +2,73 @@ package core;
 
 import tileengine.Tileset;
 import tileengine.TETile;
+import tileengine.TileBitSet;
+import tileengine.TileGrid;
+import utils.RandomStreams;
+import utils.RandomUtils;
 import javax.sound.sampled.*;
 
 import java.io.*;
 import java.util.*;
 
-import static java.lang.Math.pow;
-import static java.lang.Math.sqrt;
-
 
 public class World {
-    static final int WIDTH = 70;
-    static final int HEIGHT = 60;
-    Random rand;
+    public static final int DEFAULT_WIDTH = 70;
+    public static final int DEFAULT_HEIGHT = 60;
+    final int width;
+    final int height;
+    final int marginWidth;
+    final int marginHeight;
+    long seed;
+    RandomStreams streams;
     int roomAmount;
-    boolean[][] grid = new boolean[WIDTH][HEIGHT];
+    TileGrid tiles;
+    /** Speeds up room placement; only exists from resetGrid to the end of the rooms stage. */
+    OccupancyIndex occupancy;
+    DirtyTiles dirty;
+    private GenerationPipeline pipeline = GenerationPipeline.standard();
     ArrayList<Room> rooms = new ArrayList<>();
-    TETile[][] world = new TETile[WIDTH][HEIGHT];
+    ArrayList<Hallway> hallways = new ArrayList<>();
     public static final int MORE_ROOM = 6;
     public static final int ROOM_AT_LEAST = 10;
     public static final int MORE_HALLWAY = 3;
     public static final TETile OUT_SPACE = Tileset.NOTHING;
     public static final TETile FLOOR = Tileset.FLOOR;
     public static final TETile WALL = Tileset.WALL;
-    public static final int MARGIN_WIDTH = WIDTH / 15;
-    public static final int MARGIN_HEIGHT = HEIGHT / 15;
+    public static final int MARGIN_MAKER = 15;
+    public static final int MIN_SIZE = 20;
+    /** Give up on a room after this many rejected candidates. */
+    public static final int MAX_ATTEMPTS_PER_ROOM = 1000;
+    /** Agents further than this many steps from the avatar do not get a route to it. */
+    public static final int CHASE_DISTANCE = 128;
+    /** Stage numbers of the RandomStreams each generation stage draws from. */
+    public static final int STAGE_ROOM_COUNT = 0;
+    public static final int STAGE_ROOMS = 1;
+    public static final int STAGE_HALLWAYS = 2;
+
+    public World() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /**
+     * Creates a world of the given size. Room count grows with the area of the map while
+     * room sizes stay the same as on a default map, so large maps get more rooms rather
+     * than huge ones.
+     * @param width width of the world in tiles
+     * @param height height of the world in tiles
+     */
+    public World(int width, int height) {
+        if (width < MIN_SIZE || height < MIN_SIZE) {
+            throw new IllegalArgumentException("World must be at least " + MIN_SIZE + "x" + MIN_SIZE
+                    + ", got " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.marginWidth = width / MARGIN_MAKER;
+        this.marginHeight = height / MARGIN_MAKER;
+        this.tiles = new TileGrid(width, height);
+        this.dirty = new DirtyTiles(width, height);
+    }
     public static class Position {
         int line;   // Remove final
         int column; // Remove final
@@ -39,7 +81,26 @@ public class World {
     private Position avatarPos;
 
     public long getSeed() {
-        return rand == null ? 0 : rand.nextLong();
+        return seed;
+    }
+    /**
+     * TETile[][] view of the world, kept in sync with the underlying TileGrid.
+     */
+    public TETile[][] getTiles() {
+        return tiles.asArray();
+    }
+    public TileGrid getTileGrid() {
+        return tiles;
+    }
+    public TETile getTile(int x, int y) {
+        return tiles.get(x, y);
+    }
+    /**
+     * Replaces a tile at runtime. The change is recorded so the next finalizeWalls call
+     * re-checks this tile and its neighbours.
+     */
+    public void setTile(int x, int y, TETile tile) {
+        paint(x, y, tile);
     }
     public Position getAvatarPosition() {
         return avatarPos;
@@ -50,13 +111,29 @@ public class World {
     }
 
     private boolean lineOfSightEnabled = false;
+    private boolean soundEnabled = true;
+    private FieldOfView fov;
+    private long fovWriteCount = -1;
+    private TileBitSet explored;
+    private PathFinder pathFinder;
+    private HierarchicalPathFinder hierarchicalPathFinder;
+    private FlowField flowField;
+    private ConnectivityValidator connectivityValidator;
+    private ConnectivityReport connectivityReport;
 
     public void toggleLineOfSight() {
         lineOfSightEnabled = !lineOfSightEnabled;
     }
-    public void walking(String soundFilePath)
+    public boolean isLineOfSightEnabled() {
+        return lineOfSightEnabled;
+    }
+    /** Turns the footstep sound off, for example when playing in a terminal. */
+    public void setSoundEnabled(boolean enabled) {
+        soundEnabled = enabled;
+    }
+    public static void walking(String soundFilePath)
             throws UnsupportedAudioFileException, IOException, LineUnavailableException {
-        InputStream audioSrc = getClass().getResourceAsStream(soundFilePath);
+        InputStream audioSrc = World.class.getResourceAsStream(soundFilePath);
         if (audioSrc == null) {
             throw new FileNotFoundException("Sound file not found: " + soundFilePath);
         }
@@ -67,40 +144,153 @@ public class World {
         clip.start();
     }
 
+    /**
+     * Whether the avatar can see the tile. Always true while line of sight is off. The
+     * visible set is recomputed by shadowcasting only when the avatar has moved or a tile
+     * has changed since the last call, so asking for every tile of a frame costs one bit
+     * lookup each.
+     */
     public boolean isTileVisible(int x, int y) {
         if (!lineOfSightEnabled) {
             return true;
         }
-        int dx = Math.abs(x - avatarPos.line);
-        int dy = Math.abs(y - avatarPos.column);
-        int maxRange = 7;
-        if (Math.sqrt(dx * dx + dy * dy) > maxRange) {
-            return false;
+        return fieldOfView().isVisible(x, y);
+    }
+
+    /**
+     * Whether the avatar has seen the tile at some point since the world was generated or
+     * loaded. Line of sight rendering shows such tiles dimmed when they are out of view.
+     */
+    public boolean isTileExplored(int x, int y) {
+        fieldOfView();
+        return explored.get(x, y);
+    }
+
+    /**
+     * Every tile the avatar has seen, one bit per tile. Saves store it with
+     * TileBitSet.toByteArray and restore it with readByteArray.
+     */
+    public TileBitSet getExplored() {
+        fieldOfView();
+        return explored;
+    }
+
+    /**
+     * Route finder over this world's tiles, created on first use. It reads the grid on
+     * every search, so it stays valid across edits and regeneration.
+     */
+    public PathFinder getPathFinder() {
+        if (pathFinder == null) {
+            pathFinder = new PathFinder(tiles);
+        }
+        return pathFinder;
+    }
+
+    /**
+     * Planner that routes over a portal graph of this world's rooms and corridors, built
+     * on first use and rebuilt after the world is regenerated or edited.
+     */
+    public HierarchicalPathFinder getHierarchicalPathFinder() {
+        if (hierarchicalPathFinder == null) {
+            hierarchicalPathFinder = new HierarchicalPathFinder(this);
+        }
+        return hierarchicalPathFinder;
+    }
+
+    /**
+     * Checks that every passable tile can be reached from the avatar. With repair on,
+     * each unreachable region is joined to the nearest reachable tile with a corridor and
+     * the check is repeated until the world is connected.
+     * Add ConnectivityValidator.stage to the generation pipeline to run this on every
+     * generated world.
+     * @return the final report, also kept for getConnectivityReport
+     */
+    public ConnectivityReport validateConnectivity(boolean repair) {
+        if (connectivityValidator == null) {
+            connectivityValidator = new ConnectivityValidator(tiles);
+        }
+        int startX = avatarPos == null ? -1 : avatarPos.line;
+        int startY = avatarPos == null ? -1 : avatarPos.column;
+        ConnectivityReport report = connectivityValidator.validate(startX, startY);
+        int repaired = 0;
+        while (repair && avatarPos != null && !report.isConnected()) {
+            for (ConnectivityReport.Region region : report.unreachableRegions()) {
+                joinToReachable(region);
+                repaired++;
+            }
+            tiles.set(avatarPos.line, avatarPos.column, Tileset.AVATAR);
+            finalizeWalls();
+            report = connectivityValidator.validate(startX, startY);
+        }
+        connectivityReport = report.withRepairs(repaired);
+        return connectivityReport;
+    }
+
+    /**
+     * Report of the last validateConnectivity call, or null if there was none.
+     */
+    public ConnectivityReport getConnectivityReport() {
+        return connectivityReport;
+    }
+
+    /**
+     * Carves a corridor from a tile of the region to the closest tile, by Manhattan
+     * distance, that the last check reached.
+     */
+    private void joinToReachable(ConnectivityReport.Region region) {
+        int bestX = avatarPos.line;
+        int bestY = avatarPos.column;
+        int best = Integer.MAX_VALUE;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int d = Math.abs(x - region.x()) + Math.abs(y - region.y());
+                if (d < best && connectivityValidator.isReached(x, y)) {
+                    best = d;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
         }
-        return hasClearPath(avatarPos.line, avatarPos.column, x, y);
+        carveCorridor(region.x(), region.y(), bestX, bestY);
     }
 
-    private boolean hasClearPath(int x1, int y1, int x2, int y2) {
-        int dx = Math.abs(x2 - x1);
-        int dy = Math.abs(y2 - y1);
-        int sx = Integer.signum(x2 - x1);
-        int sy = Integer.signum(y2 - y1);
-        int err = dx - dy;
-        while (!(x1 == x2 && y1 == y2)) {
-            if (world[x1][y1] == Tileset.WALL) {
-                return false;
-            }
-            int e2 = 2 * err;
-            if (e2 > -dy) {
-                err -= dy;
-                x1 += sx;
+    /**
+     * Distances to the avatar from every tile within CHASE_DISTANCE steps, for agents
+     * chasing it. Created on first use and then repaired on every avatar move.
+     */
+    public FlowField getFlowField() {
+        if (flowField == null) {
+            flowField = new FlowField(tiles, CHASE_DISTANCE);
+            if (avatarPos != null) {
+                flowField.setTarget(avatarPos.line, avatarPos.column);
             }
-            if (e2 < dx) {
-                err += dx;
-                y1 += sy;
+        }
+        return flowField;
+    }
+
+    /**
+     * Field of view from the avatar, brought up to date first if needed. Each recompute
+     * also adds the newly visible tiles to the explored set; only the square the field of
+     * view can reach is merged, so this stays cheap on large maps.
+     */
+    FieldOfView fieldOfView() {
+        if (fov == null) {
+            fov = new FieldOfView(tiles);
+            explored = new TileBitSet(width, height);
+        }
+        // Every avatar move writes the grid, so the write count covers moves as well as edits.
+        if (fovWriteCount != tiles.writeCount()) {
+            if (avatarPos == null) {
+                fov.compute(-1, -1);
+            } else {
+                int r = fov.radius();
+                fov.compute(avatarPos.line, avatarPos.column);
+                explored.or(fov.visible(), avatarPos.line - r, avatarPos.column - r,
+                        avatarPos.line + r, avatarPos.column + r);
             }
+            fovWriteCount = tiles.writeCount();
         }
-        return world[x2][y2] != Tileset.WALL;
+        return fov;
     }
     public static TETile fromCharacter(char c) {
         switch (c) {
@@ -127,46 +317,197 @@ public class World {
         throw new IllegalArgumentException("Invalid TETile: " + tile.description());
     }
     public TETile[][] generate(long seed) {
-        for (int i = 0; i < WIDTH; i++) {
-            for (int j = 0; j < HEIGHT; j++) {
-                world[i][j] = OUT_SPACE;
-                grid[i][j] = i <= MARGIN_WIDTH || i >= WIDTH - MARGIN_WIDTH
-                        || j <= MARGIN_HEIGHT || j >= HEIGHT - MARGIN_HEIGHT;
+        generateGrid(seed);
+        return tiles.asArray();
+    }
+
+    /**
+     * Same as generate, but returns the packed grid without building a TETile[][] view.
+     * Use this for large maps, where the view would cost far more memory than the grid.
+     */
+    public TileGrid generateGrid(long seed) {
+        pipeline.run(this, seed);
+        return tiles;
+    }
+
+    /**
+     * Pipeline that generateGrid runs. Add a GenerationListener to it to profile
+     * generation, or replace its stages to change how worlds are built.
+     */
+    public GenerationPipeline getPipeline() {
+        return pipeline;
+    }
+
+    public void setPipeline(GenerationPipeline pipeline) {
+        if (pipeline == null) {
+            throw new IllegalArgumentException("pipeline must not be null");
+        }
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * First generation stage: empties the world, marks the margins occupied, and draws the
+     * room count for the new seed.
+     */
+    void resetGrid(long seed, RandomStreams seedStreams) {
+        rooms.clear();
+        hallways.clear();
+        tiles.fill(OUT_SPACE);
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                tiles.setOccupied(i, j, i <= marginWidth || i >= width - marginWidth
+                        || j <= marginHeight || j >= height - marginHeight);
             }
         }
-        rand = new Random(seed);
-        roomAmount = Math.floorMod(rand.nextInt(), MORE_ROOM) + ROOM_AT_LEAST;
-        roomGenerator();
-        hallwayGenerator();
-        for (int i = 0; i < WIDTH; i++) {
-            world[i][0] = WALL;
-            world[i][HEIGHT - 1] = WALL;
-        }
-        for (int j = 0; j < HEIGHT; j++) {
-            world[0][j] = WALL;
-            world[WIDTH - 1][j] = WALL;
-        }
-        for (int i = 0; i < WIDTH; i++) {
-            for (int j = 0; j < HEIGHT; j++) {
-                if (world[i][j] == FLOOR) {
-                    if ((i > 0 && world[i - 1][j] == OUT_SPACE)
-                            || (i < WIDTH - 1 && world[i + 1][j] == OUT_SPACE)
-                            || (j > 0 && world[i][j - 1] == OUT_SPACE)
-                            || (j < HEIGHT - 1 && world[i][j + 1] == OUT_SPACE)) {
-                        world[i][j] = WALL;
-                    }
+        occupancy = new OccupancyIndex(tiles);
+        dirty.clear();
+        avatarPos = null;
+        if (explored != null) {
+            explored.clear();
+        }
+        if (flowField != null) {
+            flowField.invalidate();
+        }
+        connectivityReport = null;
+        this.seed = seed;
+        streams = seedStreams;
+        roomAmount = (RandomUtils.uniform(streams.stream(STAGE_ROOM_COUNT), MORE_ROOM) + ROOM_AT_LEAST)
+                * areaScale();
+    }
+
+    void paintBorder() {
+        for (int i = 0; i < width; i++) {
+            paint(i, 0, WALL);
+            paint(i, height - 1, WALL);
+        }
+        for (int j = 0; j < height; j++) {
+            paint(0, j, WALL);
+            paint(width - 1, j, WALL);
+        }
+    }
+
+    /**
+     * Turns every FLOOR tile that touches OUT_SPACE into WALL, like a full pass over the grid
+     * would, but only looks at tiles changed since the last call and their four neighbours.
+     * That gives the same result as a full pass: the rule only reads OUT_SPACE, which it never
+     * creates, so untouched tiles whose neighbourhood did not change cannot change either.
+     * generate calls this once at the end; call it again after a batch of runtime edits.
+     */
+    public void finalizeWalls() {
+        for (int m = 0; m < dirty.size(); m++) {
+            int x = dirty.x(m);
+            int y = dirty.y(m);
+            sealFloor(x, y);
+            sealFloor(x - 1, y);
+            sealFloor(x + 1, y);
+            sealFloor(x, y - 1);
+            sealFloor(x, y + 1);
+        }
+        dirty.clear();
+    }
+
+    private void sealFloor(int i, int j) {
+        if (!tiles.inBounds(i, j) || !tiles.is(i, j, FLOOR)) {
+            return;
+        }
+        if ((i > 0 && tiles.is(i - 1, j, OUT_SPACE))
+                || (i < width - 1 && tiles.is(i + 1, j, OUT_SPACE))
+                || (j > 0 && tiles.is(i, j - 1, OUT_SPACE))
+                || (j < height - 1 && tiles.is(i, j + 1, OUT_SPACE))) {
+            tiles.set(i, j, WALL);
+        }
+    }
+
+    private void paint(int x, int y, TETile tile) {
+        tiles.set(x, y, tile);
+        dirty.mark(x, y);
+        hierarchicalPathFinder = null;
+        if (flowField != null) {
+            flowField.invalidate();
+        }
+    }
+
+    /**
+     * Carves a single floor tile at runtime, walling in any OUT_SPACE around it so the new
+     * floor is enclosed. Call finalizeWalls once the edits are done.
+     */
+    public void carve(int x, int y) {
+        paint(x, y, FLOOR);
+        occupy(x, y);
+        for (int i = x - 1; i <= x + 1; i++) {
+            for (int j = y - 1; j <= y + 1; j++) {
+                if (tiles.inBounds(i, j) && tiles.is(i, j, OUT_SPACE)) {
+                    paint(i, j, WALL);
+                    occupy(i, j);
                 }
             }
         }
-        initiaizeAvatar();
-        return world;
     }
-    private void initiaizeAvatar() {
-        for (int y = HEIGHT - 1; y >= 0; y--) {
-            for (int x = 0; x < WIDTH; x++) {
-                if (world[x][y] == Tileset.FLOOR) {
+
+    /**
+     * Carves an L-shaped corridor from (x0, y0) to (x1, y1), horizontal leg first.
+     */
+    public void carveCorridor(int x0, int y0, int x1, int y1) {
+        int sx = Integer.signum(x1 - x0);
+        for (int x = x0; x != x1; x += sx) {
+            carve(x, y0);
+        }
+        int sy = Integer.signum(y1 - y0);
+        for (int y = y0; y != y1; y += sy) {
+            carve(x1, y);
+        }
+        carve(x1, y1);
+    }
+
+    /**
+     * Places a room at runtime if its footprint and a one-tile ring around it are free.
+     * The room is stamped and cleaned up the same way generated rooms are; call
+     * finalizeWalls afterwards.
+     * @return whether the room was placed
+     */
+    public boolean placeRoom(int x, int y, int roomWidth, int roomHeight) {
+        if (x < 1 || y < 1 || x + roomWidth >= width || y + roomHeight >= height) {
+            return false;
+        }
+        // The guard above keeps the ring at x - 1 and y - 1 inside the world.
+        if (!isSpaceAvailable(x - 1, y - 1, x + roomWidth, y + roomHeight)) {
+            return false;
+        }
+        Room room = Room.withSize(x, y, roomWidth, roomHeight);
+        for (int row = x; row < x + roomWidth; row++) {
+            for (int col = y; col < y + roomHeight; col++) {
+                setupRoomTiles(room, row, col);
+            }
+        }
+        for (int row = x; row < x + roomWidth; row++) {
+            for (int col = y; col < y + roomHeight; col++) {
+                cleanupTile(row, col);
+            }
+        }
+        rooms.add(room);
+        return true;
+    }
+
+    /** How many default-sized maps fit into this one, at least 1. */
+    private int areaScale() {
+        long area = (long) width * height;
+        return (int) Math.max(1, area / ((long) DEFAULT_WIDTH * DEFAULT_HEIGHT));
+    }
+    public int width() {
+        return width;
+    }
+    public int height() {
+        return height;
+    }
+    void initiaizeAvatar() {
+        for (int y = height - 1; y >= 0; y--) {
+            for (int x = 0; x < width; x++) {
+                if (tiles.is(x, y, Tileset.FLOOR)) {
                     avatarPos = new Position(x, y);
-                    world[x][y] = Tileset.AVATAR;
+                    tiles.set(x, y, Tileset.AVATAR);
+                    if (flowField != null) {
+                        flowField.setTarget(x, y);
+                    }
                     return;
                 }
             }
@@ -193,21 +534,26 @@ public class World {
                 return;
         }
         if (isValidMove(newPos)) {
-            walking("./step.wav");
+            if (soundEnabled) {
+                walking("./step.wav");
+            }
             updateAvatarPosition(newPos);
 
         }
     }
 
     private boolean isValidMove(Position pos) {
-        boolean withinBounds = pos.line >= 0 && pos.line < WIDTH && pos.column >= 0 && pos.column < HEIGHT;
-        return withinBounds && world[pos.line][pos.column] != Tileset.WALL;
+        return tiles.inBounds(pos.line, pos.column) && !tiles.is(pos.line, pos.column, Tileset.WALL);
     }
 
     private void updateAvatarPosition(Position newPos) {
-        world[avatarPos.line][avatarPos.column] = Tileset.FLOOR; // Clear previous avatar position
+        tiles.set(avatarPos.line, avatarPos.column, Tileset.FLOOR); // Clear previous avatar position
         avatarPos = newPos; // Update to new position
-        world[avatarPos.line][avatarPos.column] = Tileset.AVATAR; // Set avatar in new position
+        tiles.set(avatarPos.line, avatarPos.column, Tileset.AVATAR); // Set avatar in new position
+        fieldOfView(); // Remember what the avatar sees from here
+        if (flowField != null) {
+            flowField.setTarget(avatarPos.line, avatarPos.column);
+        }
     }
 
 
@@ -220,61 +566,70 @@ public class World {
 
         cleanUpWallArtifacts();
 
+        // Candidates are only tested against the reset grid (see sampleRoom), and runtime
+        // placeRoom calls are too rare to pay an int per cell for, so the index goes here.
+        occupancy = null;
+
     }
 
     private void generateRooms() {
 
-        while (roomAmount != 0) {
-
-            int x = Math.floorMod(rand.nextInt(), WIDTH);
+        for (int k = 0; k < roomAmount; k++) {
 
-            int y = Math.floorMod(rand.nextInt(), HEIGHT);
+            Room temp = sampleRoom(streams.stream(STAGE_ROOMS, k));
 
-            Room temp = new Room(rand.nextInt(), rand.nextInt(), x, y);
+            if (temp != null) {
 
-            if (isInvalidRoom(x, y, temp)) {
-
-                continue;
+                rooms.add(temp);
 
             }
 
-            if (!isSpaceAvailable(x, y, temp)) {
+        }
 
-                continue;
+    }
 
-            }
+    /**
+     * Draws candidates for one room from that room's own stream until one fits. Rooms are
+     * only checked against the margins here, so each room's result is independent of the
+     * others and of the order they are sampled in.
+     * @return the room, or null if no candidate fit within MAX_ATTEMPTS_PER_ROOM tries
+     */
+    private Room sampleRoom(SplittableRandom random) {
 
-            rooms.add(temp);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS_PER_ROOM; attempt++) {
 
-            roomAmount--;
+            int x = RandomUtils.uniform(random, width);
 
-        }
+            int y = RandomUtils.uniform(random, height);
 
-    }
+            Room temp = new Room(random.nextInt(), random.nextInt(), x, y, width, height);
 
-    private boolean isInvalidRoom(int x, int y, Room temp) {
+            if (!isInvalidRoom(x, y, temp)
+                    && isSpaceAvailable(x, y, x + temp.ROOM_WIDTH, y + temp.ROOM_HEIGHT)) {
 
-        return x + temp.ROOM_WIDTH >= WIDTH || y + temp.ROOM_HEIGHT >= HEIGHT;
+                return temp;
 
-    }
+            }
 
-    private boolean isSpaceAvailable(int x, int y, Room temp) {
+        }
 
-        for (int w = x; w <= x + temp.ROOM_WIDTH; w++) {
+        return null;
 
-            for (int h = y; h <= y + temp.ROOM_HEIGHT; h++) {
+    }
 
-                if (grid[w][h]) {
+    private boolean isInvalidRoom(int x, int y, Room temp) {
 
-                    return false;
+        return x + temp.ROOM_WIDTH >= width || y + temp.ROOM_HEIGHT >= height;
 
-                }
+    }
 
-            }
+    /** Whether no cell from (x0, y0) to (x1, y1), both corners inclusive, is occupied. */
+    private boolean isSpaceAvailable(int x0, int y0, int x1, int y1) {
 
+        if (occupancy == null) {
+            return OccupancyIndex.isFree(tiles, x0, y0, x1, y1);
         }
-
-        return true;
+        return occupancy.isFree(x0, y0, x1, y1);
 
     }
 
@@ -312,15 +667,15 @@ public class World {
 
         if (borders.contains(row) || borders.contains(col)) {
 
-            world[row][col] = WALL;
+            paint(row, col, WALL);
 
         } else {
 
-            world[row][col] = FLOOR;
+            paint(row, col, FLOOR);
 
         }
 
-        grid[row][col] = true;
+        occupy(row, col);
 
     }
 
@@ -346,9 +701,9 @@ public class World {
 
         int neighbors = countWallNeighbors(row, col);
 
-        if ((world[row][col] == WALL && shouldConvertWallToFloor(row, col)) || neighbors > 3) {
+        if ((tiles.is(row, col, WALL) && shouldConvertWallToFloor(row, col)) || neighbors > 3) {
 
-            world[row][col] = FLOOR;
+            paint(row, col, FLOOR);
 
         }
 
@@ -368,7 +723,7 @@ public class World {
 
                 }
 
-                if (isWithinBounds(row + r, col + c) && world[row + r][col + c] == WALL) {
+                if (isWithinBounds(row + r, col + c) && tiles.is(row + r, col + c, WALL)) {
 
                     neighbors++;
 
@@ -384,81 +739,56 @@ public class World {
 
     private boolean shouldConvertWallToFloor(int row, int col) {
 
-        return (world[row][col - 1] == FLOOR && world[row][col + 1] == FLOOR)
+        return (tiles.is(row, col - 1, FLOOR) && tiles.is(row, col + 1, FLOOR))
 
-                || (world[row - 1][col] == FLOOR && world[row + 1][col] == FLOOR)
+                || (tiles.is(row - 1, col, FLOOR) && tiles.is(row + 1, col, FLOOR))
 
-                || (world[row - 1][col - 1] == FLOOR && world[row + 1][col + 1] == FLOOR)
+                || (tiles.is(row - 1, col - 1, FLOOR) && tiles.is(row + 1, col + 1, FLOOR))
 
-                || (world[row + 1][col - 1] == FLOOR && world[row - 1][col + 1] == FLOOR);
+                || (tiles.is(row + 1, col - 1, FLOOR) && tiles.is(row - 1, col + 1, FLOOR));
+
+    }
+
+    private void occupy(int x, int y) {
+
+        if (!tiles.isOccupied(x, y)) {
+
+            tiles.setOccupied(x, y, true);
+
+            if (occupancy != null) {
+                occupancy.add(x, y);
+            }
+
+        }
 
     }
 
     private boolean isWithinBounds(int row, int col) {
 
-        return row >= 0 && row < world.length && col >= 0 && col < world[0].length;
+        return tiles.inBounds(row, col);
 
     }
 
+    /**
+     * Connects every room through a minimum spanning tree over room centers, then adds
+     * rooms.size() / MORE_HALLWAY extra hallways between random rooms to create loops.
+     */
     public void hallwayGenerator() {
-        List<Room> mark = new ArrayList<>();
-        PriorityQueue<Hallway> allEdges = getAllEdges();
-
-        mark.add(rooms.getFirst());
-        Room first = rooms.getFirst();
-
-        while (mark.size() != rooms.size()) {
-            Room target = null;
-            while (true) {
-                Hallway h = allEdges.remove();
-                if (h.getFrom().equals(first)) {
-                    target = h.getTo();
-                    break;
-                }
-            }
-            Room closest = first;
-            for (Room r : mark) {
-                if (calculateDistance(r, target) < calculateDistance(r, closest)) {
-                    closest = r;
-                }
-            }
-            connectRooms(closest, target);
-            mark.add(target);
+        for (Hallway h : SpanningTree.build(rooms)) {
+            connectRooms(h.getFrom(), h.getTo());
+            hallways.add(h);
         }
+        SplittableRandom random = streams.stream(STAGE_HALLWAYS);
         for (int i = 0; i < rooms.size() / MORE_HALLWAY; i++) {
-            int temp = rand.nextInt();
-            int index = Math.floorMod(temp, rooms.size());
-            int temp2 = rand.nextInt();
-            int index2 = Math.floorMod(temp2, rooms.size());
+            int index = RandomUtils.uniform(random, rooms.size());
+            int index2 = RandomUtils.uniform(random, rooms.size());
             Room r1 = rooms.get(index);
             Room r2 = rooms.get(index2);
             connectRooms(r1, r2);
-        }
-    }
-    public int calculateDistance(Room i, Room j) {
-        double distance = sqrt(pow(i.center[0] - j.center[0], 2) + pow(i.center[1] - j.center[1], 2));
-        return (int) distance;
-    }
-
-    public PriorityQueue<Hallway> getAllEdges() {
-        PriorityQueue<Hallway> allEdges = new PriorityQueue<>(new HallwayGeneratorComparator());
-        for (Room r: rooms) {
-            for (Room R: rooms) {
-                if (R.equals(r)) {
-                    continue;
-                }
-                int distance = calculateDistance(r, R);
-                allEdges.add(new Hallway(r, R, distance));
+            if (r1 != r2) {
+                hallways.add(new Hallway(r1, r2, (int) SpanningTree.squaredDistance(r1, r2)));
             }
         }
-        return allEdges;
-    }
-
-    public static class HallwayGeneratorComparator implements Comparator<Hallway> {
-        @Override
-        public int compare(Hallway o1, Hallway o2) {
-            return o1.getDistance() - o2.getDistance();
-        }
     }
 
     public void connectRooms(Room r1, Room r2) {
@@ -476,22 +806,22 @@ public class World {
         for (int i = 1; i <= yMove; i++) {
             int x = low.center[0];
             int y = low.center[1] + i;
-            if (x >= 0 && x < world.length && y >= 0 && y < world[x].length) {
-                world[x][y] = FLOOR;
-                grid[x][y] = true;
+            if (tiles.inBounds(x, y)) {
+                paint(x, y, FLOOR);
+                occupy(x, y);
             }
             int wallY = low.center[1] + i;
 
-            if (x >= 0 && x + 1 < world.length && wallY < world[x + 1].length) {
-                if (!grid[x + 1][wallY]) {
-                    world[x + 1][wallY] = WALL;
-                    grid[x + 1][wallY] = true;
+            if (x >= 0 && x + 1 < tiles.width() && wallY < tiles.height()) {
+                if (!tiles.isOccupied(x + 1, wallY)) {
+                    paint(x + 1, wallY, WALL);
+                    occupy(x + 1, wallY);
                 }
             }
-            if (x - 1 >= 0 && wallY < world[x - 1].length) {
-                if (!grid[x - 1][wallY]) {
-                    world[x - 1][wallY] = WALL;
-                    grid[x - 1][wallY] = true;
+            if (x - 1 >= 0 && wallY < tiles.height()) {
+                if (!tiles.isOccupied(x - 1, wallY)) {
+                    paint(x - 1, wallY, WALL);
+                    occupy(x - 1, wallY);
                 }
             }
         }
@@ -518,60 +848,60 @@ public class World {
 
         if (!right.equals(low)) {
             for (int i = 1; i <= xMove; i++) {
-                world[right.center[0] - i][right.center[1]] = FLOOR;
-                grid[right.center[0] - i][right.center[1]] = true;
+                paint(right.center[0] - i, right.center[1], FLOOR);
+                occupy(right.center[0] - i, right.center[1]);
                 int wallX = right.center[0] - i;
-                if (!grid[wallX][right.center[1] + 1]) {
-                    world[right.center[0] - i][right.center[1] + 1] = WALL;
-                    grid[right.center[0] - i][right.center[1] + 1] = true;
+                if (!tiles.isOccupied(wallX, right.center[1] + 1)) {
+                    paint(right.center[0] - i, right.center[1] + 1, WALL);
+                    occupy(right.center[0] - i, right.center[1] + 1);
                 }
-                if (!grid[wallX][right.center[1] - 1]) {
-                    world[right.center[0] - i][right.center[1] - 1] = WALL;
-                    grid[right.center[0] - i][right.center[1] - 1] = true;
+                if (!tiles.isOccupied(wallX, right.center[1] - 1)) {
+                    paint(right.center[0] - i, right.center[1] - 1, WALL);
+                    occupy(right.center[0] - i, right.center[1] - 1);
                 }
             }
 
             boolean breakWall = right.x > low.center[0];
             boolean breakCeiling = right.center[1] > low.y + low.ROOM_HEIGHT;
             if (breakWall) {
-                world[right.x][right.center[1]] = FLOOR;
-                grid[right.x][right.center[1]] = true;
+                paint(right.x, right.center[1], FLOOR);
+                occupy(right.x, right.center[1]);
             }
             if (breakCeiling) {
-                world[low.center[0]][low.y + low.ROOM_HEIGHT] = FLOOR;
-                grid[low.center[0]][low.y + low.ROOM_HEIGHT] = true;
+                paint(low.center[0], low.y + low.ROOM_HEIGHT, FLOOR);
+                occupy(low.center[0], low.y + low.ROOM_HEIGHT);
             }
-            if (!grid[low.center[0] - 1][right.center[1] + 1]) {
-                world[low.center[0] - 1][right.center[1] + 1] = WALL;
-                grid[low.center[0] - 1][right.center[1] + 1] = true;
+            if (!tiles.isOccupied(low.center[0] - 1, right.center[1] + 1)) {
+                paint(low.center[0] - 1, right.center[1] + 1, WALL);
+                occupy(low.center[0] - 1, right.center[1] + 1);
             }
         } else {
             for (int i = 1; i <= xMove; i++) {
                 int wallX = left.center[0] + i;
-                world[wallX][left.center[1]] = FLOOR;
-                grid[wallX][left.center[1]] = true;
-                if (!grid[wallX][left.center[1] + 1]) {
-                    world[wallX][left.center[1] + 1] = WALL;
-                    grid[wallX][left.center[1] + 1] = true;
+                paint(wallX, left.center[1], FLOOR);
+                occupy(wallX, left.center[1]);
+                if (!tiles.isOccupied(wallX, left.center[1] + 1)) {
+                    paint(wallX, left.center[1] + 1, WALL);
+                    occupy(wallX, left.center[1] + 1);
                 }
-                if (!grid[wallX][left.center[1] - 1]) {
-                    world[wallX][left.center[1] - 1] = WALL;
-                    grid[wallX][left.center[1] - 1] = true;
+                if (!tiles.isOccupied(wallX, left.center[1] - 1)) {
+                    paint(wallX, left.center[1] - 1, WALL);
+                    occupy(wallX, left.center[1] - 1);
                 }
             }
             boolean breakWall = left.x > low.center[0];
             boolean breakCeiling = left.center[1] > low.y + low.ROOM_HEIGHT;
             if (breakWall) {
-                world[left.x][left.center[1]] = FLOOR;
-                grid[left.x][left.center[1]] = true;
+                paint(left.x, left.center[1], FLOOR);
+                occupy(left.x, left.center[1]);
             }
             if (breakCeiling) {
-                world[low.center[0]][low.y + low.ROOM_HEIGHT] = FLOOR;
-                grid[low.center[0]][low.y + low.ROOM_HEIGHT] = true;
+                paint(low.center[0], low.y + low.ROOM_HEIGHT, FLOOR);
+                occupy(low.center[0], low.y + low.ROOM_HEIGHT);
             }
-            if (!grid[low.center[0] + 1][left.center[1] + 1]) {
-                world[low.center[0] + 1][left.center[1] + 1] = WALL;
-                grid[low.center[0] + 1][left.center[1] + 1] = true;
+            if (!tiles.isOccupied(low.center[0] + 1, left.center[1] + 1)) {
+                paint(low.center[0] + 1, left.center[1] + 1, WALL);
+                occupy(low.center[0] + 1, left.center[1] + 1);
             }
         }
     }
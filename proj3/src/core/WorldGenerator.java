@@ -0,0 +1,171 @@
+package core;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.LongStream;
+
+/**
+ * Headless batch generation of many worlds at once. Every seed is generated on its own
+ * World instance, so worlds built here are identical to the ones a single-threaded
+ * World.generate(seed) call would produce; only the scheduling is concurrent.
+ */
+public class WorldGenerator {
+    /** Seeds per leaf task before the fork-join pool stops splitting the batch. */
+    private static final int SEEDS_PER_TASK = 16;
+
+    /**
+     * Receives each generated world. Called concurrently from pool threads, so
+     * implementations must be thread-safe.
+     */
+    public interface WorldSink {
+        void accept(long seed, World world);
+    }
+
+    private final ForkJoinPool pool;
+    private final int width;
+    private final int height;
+    private final List<GenerationListener> listeners = new CopyOnWriteArrayList<>();
+
+    public WorldGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public WorldGenerator(ForkJoinPool pool) {
+        this(pool, World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+    }
+
+    /**
+     * @param pool pool to generate on
+     * @param width width of every generated world
+     * @param height height of every generated world
+     */
+    public WorldGenerator(ForkJoinPool pool, int width, int height) {
+        this.pool = pool;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Registers a listener on the pipeline of every world generated from now on. It is
+     * called from pool threads and must be thread-safe.
+     */
+    public void addListener(GenerationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Generates every seed in [fromSeed, toSeed).
+     */
+    public BatchStats generate(long fromSeed, long toSeed, WorldSink sink) {
+        return generate(LongStream.range(fromSeed, toSeed), sink);
+    }
+
+    /**
+     * Generates every seed of the given stream. The stream is drained before generation
+     * starts so the batch can be split evenly across the pool.
+     */
+    public BatchStats generate(LongStream seeds, WorldSink sink) {
+        long[] seedArray = seeds.toArray();
+        long[] latencies = new long[seedArray.length];
+        long start = System.nanoTime();
+        pool.invoke(new GenerateTask(seedArray, latencies, 0, seedArray.length, sink));
+        return new BatchStats(latencies, System.nanoTime() - start);
+    }
+
+    private class GenerateTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient long[] seeds;
+        private final transient long[] latencies;
+        private final int lo;
+        private final int hi;
+        private final transient WorldSink sink;
+
+        GenerateTask(long[] seeds, long[] latencies, int lo, int hi, WorldSink sink) {
+            this.seeds = seeds;
+            this.latencies = latencies;
+            this.lo = lo;
+            this.hi = hi;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= SEEDS_PER_TASK) {
+                for (int i = lo; i < hi; i++) {
+                    long begin = System.nanoTime();
+                    World world = new World(width, height);
+                    for (GenerationListener listener : listeners) {
+                        world.getPipeline().addListener(listener);
+                    }
+                    world.generateGrid(seeds[i]);
+                    latencies[i] = System.nanoTime() - begin;
+                    sink.accept(seeds[i], world);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new GenerateTask(seeds, latencies, lo, mid, sink),
+                    new GenerateTask(seeds, latencies, mid, hi, sink));
+        }
+    }
+
+    /**
+     * Throughput and per-seed latency of one batch. Latencies cover World.generate only,
+     * not the time spent in the sink.
+     */
+    public static class BatchStats {
+        private final long[] sortedLatencies;
+        private final long elapsedNanos;
+
+        BatchStats(long[] latencies, long elapsedNanos) {
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int worldCount() {
+            return sortedLatencies.length;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double worldsPerSecond() {
+            return elapsedNanos == 0 ? 0 : sortedLatencies.length * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Nearest-rank latency percentile in nanoseconds.
+         * @param p percentile in (0, 100]
+         */
+        public long latencyPercentile(double p) {
+            if (!(p > 0 && p <= 100)) {
+                throw new IllegalArgumentException("percentile must be in (0, 100]: " + p);
+            }
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100 * sortedLatencies.length);
+            return sortedLatencies[rank - 1];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d worlds in %.1f ms (%.0f worlds/s), latency p50=%.3f ms "
+                            + "p90=%.3f ms p99=%.3f ms max=%.3f ms",
+                    worldCount(), elapsedNanos / 1e6, worldsPerSecond(),
+                    latencyPercentile(50) / 1e6, latencyPercentile(90) / 1e6,
+                    latencyPercentile(99) / 1e6, latencyPercentile(100) / 1e6);
+        }
+    }
+}
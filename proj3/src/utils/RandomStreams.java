@@ -0,0 +1,58 @@
+package utils;
+
+import java.util.SplittableRandom;
+
+/**
+ * Derives independent random streams from one seed. Each stream is addressed by a stage
+ * number and an index within the stage (a room number, a chunk, ...), and its seed is a hash
+ * of (seed, stage, index) rather than the next value of a shared generator. Streams therefore
+ * do not depend on how many numbers other stages drew, or in which order or on which thread
+ * they ran, so reordering or parallelising stages still reproduces the same output.
+ */
+public class RandomStreams {
+    /** Odd constant from SplitMix64, used to spread consecutive stage and index values apart. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Returns a fresh generator for the given stage. Calling this twice returns two
+     * generators that produce the same numbers.
+     */
+    public SplittableRandom stream(int stage) {
+        return stream(stage, 0);
+    }
+
+    /**
+     * Returns a fresh generator for item index of the given stage.
+     */
+    public SplittableRandom stream(int stage, long index) {
+        return new SplittableRandom(derive(seed, stage, index));
+    }
+
+    /**
+     * Hashes (seed, stage, index) into a new seed. Nearby inputs give unrelated outputs.
+     */
+    public static long derive(long seed, long stage, long index) {
+        long h = mix(seed);
+        h = mix(h + (stage + 1) * GOLDEN_GAMMA);
+        return mix(h + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
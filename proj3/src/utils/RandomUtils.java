@@ -1,6 +1,6 @@
 package utils;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * A library of static methods to generate pseudo-random numbers from
@@ -9,6 +9,9 @@ import java.util.Random;
  * other randomness related stuff you might want to do. Feel free to
  * modify this file.
  * <p>
+ * Every method takes a {@link RandomGenerator}, so both {@link java.util.Random} and the
+ * per-stage {@link java.util.SplittableRandom} streams from {@link RandomStreams} work.
+ * <p>
  * Adapted from https://introcs.cs.princeton.edu/java/22library/StdRandom.java.html
  */
 public class RandomUtils {
@@ -18,7 +21,7 @@ public class RandomUtils {
      *
      * @return a random real number uniformly in [0, 1)
      */
-    public static double uniform(Random random) {
+    public static double uniform(RandomGenerator random) {
         return random.nextDouble();
     }
 
@@ -29,7 +32,7 @@ public class RandomUtils {
      * @return a random integer uniformly between 0 (inclusive) and {@code n} (exclusive)
      * @throws IllegalArgumentException if {@code n <= 0}
      */
-    public static int uniform(Random random, int n) {
+    public static int uniform(RandomGenerator random, int n) {
         if (n <= 0) {
             throw new IllegalArgumentException("argument must be positive: " + n);
         }
@@ -44,7 +47,7 @@ public class RandomUtils {
      * @return a random long integer uniformly between 0 (inclusive) and {@code n} (exclusive)
      * @throws IllegalArgumentException if {@code n <= 0}
      */
-    public static long uniform(Random random, long n) {
+    public static long uniform(RandomGenerator random, long n) {
         if (n <= 0L) {
             throw new IllegalArgumentException("argument must be positive: " + n);
         }
@@ -67,7 +70,7 @@ public class RandomUtils {
     }
 
     ///////////////////////////////////////////////////////////////////////////
-    //  STATIC METHODS BELOW RELY ON JAVA.UTIL.RANDOM ONLY INDIRECTLY VIA
+    //  STATIC METHODS BELOW RELY ON THE GENERATOR ONLY INDIRECTLY VIA
     //  THE STATIC METHODS ABOVE.
     ///////////////////////////////////////////////////////////////////////////
 
@@ -81,7 +84,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code b <= a}
      * @throws IllegalArgumentException if {@code b - a >= Integer.MAX_VALUE}
      */
-    public static int uniform(Random random, int a, int b) {
+    public static int uniform(RandomGenerator random, int a, int b) {
         if ((b <= a) || ((long) b - a >= Integer.MAX_VALUE)) {
             throw new IllegalArgumentException("invalid range: [" + a + ", " + b + ")");
         }
@@ -96,7 +99,7 @@ public class RandomUtils {
      * @return a random real number uniformly in [a, b)
      * @throws IllegalArgumentException unless {@code a < b}
      */
-    public static double uniform(Random random, double a, double b) {
+    public static double uniform(RandomGenerator random, double a, double b) {
         if (!(a < b)) {
             throw new IllegalArgumentException("invalid range: [" + a + ", " + b + ")");
         }
@@ -112,7 +115,7 @@ public class RandomUtils {
      * {@code false} with probability {@code p}
      * @throws IllegalArgumentException unless {@code 0} &le; {@code p} &le; {@code 1.0}
      */
-    public static boolean bernoulli(Random random, double p) {
+    public static boolean bernoulli(RandomGenerator random, double p) {
         if (!(p >= 0.0 && p <= 1.0)) {
             throw new IllegalArgumentException("probability p must be between 0.0 and 1.0: " + p);
         }
@@ -126,7 +129,7 @@ public class RandomUtils {
      * @return {@code true} with probability 1/2 and
      * {@code false} with probability 1/2
      */
-    public static boolean bernoulli(Random random) {
+    public static boolean bernoulli(RandomGenerator random) {
         return bernoulli(random, 0.5);
     }
 
@@ -136,7 +139,7 @@ public class RandomUtils {
      * @return a random real number from a standard Gaussian distribution
      * (mean 0 and standard deviation 1).
      */
-    public static double gaussian(Random random) {
+    public static double gaussian(RandomGenerator random) {
         // use the polar form of the Box-Muller transform
         double r, x, y;
         do {
@@ -159,7 +162,7 @@ public class RandomUtils {
      * @return a real number distributed according to the Gaussian distribution
      * with mean {@code mu} and standard deviation {@code sigma}
      */
-    public static double gaussian(Random random, double mu, double sigma) {
+    public static double gaussian(RandomGenerator random, double mu, double sigma) {
         return mu + sigma * gaussian(random);
     }
 
@@ -173,7 +176,7 @@ public class RandomUtils {
      * {@code p} is (nearly) equal to {@code 1.0}.
      * @throws IllegalArgumentException unless {@code p >= 0.0} and {@code p <= 1.0}
      */
-    public static int geometric(Random random, double p) {
+    public static int geometric(RandomGenerator random, double p) {
         if (!(p >= 0.0 && p <= 1.0)) {
             throw new IllegalArgumentException("probability p must be between 0.0 and 1.0: " + p);
         }
@@ -188,7 +191,7 @@ public class RandomUtils {
      * @return a random integer from a Poisson distribution with mean {@code lambda}
      * @throws IllegalArgumentException unless {@code lambda > 0.0} and not infinite
      */
-    public static int poisson(Random random, double lambda) {
+    public static int poisson(RandomGenerator random, double lambda) {
         if (!(lambda > 0.0)) {
             throw new IllegalArgumentException("lambda must be positive: " + lambda);
         }
@@ -212,7 +215,7 @@ public class RandomUtils {
      *
      * @return a random real number from the standard Pareto distribution
      */
-    public static double pareto(Random random) {
+    public static double pareto(RandomGenerator random) {
         return pareto(random, 1.0);
     }
 
@@ -225,7 +228,7 @@ public class RandomUtils {
      * parameter {@code alpha}
      * @throws IllegalArgumentException unless {@code alpha > 0.0}
      */
-    public static double pareto(Random random, double alpha) {
+    public static double pareto(RandomGenerator random, double alpha) {
         if (!(alpha > 0.0)) {
             throw new IllegalArgumentException("alpha must be positive: " + alpha);
         }
@@ -237,7 +240,7 @@ public class RandomUtils {
      *
      * @return a random real number from the Cauchy distribution.
      */
-    public static double cauchy(Random random) {
+    public static double cauchy(RandomGenerator random) {
         return Math.tan(Math.PI * (uniform(random) - 0.5));
     }
 
@@ -251,7 +254,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if sum of array entries is not (very nearly) equal to 1.0
      * @throws IllegalArgumentException unless {@code probabilities[i] >= 0.0} for each index i
      */
-    public static int discrete(Random random, double[] probabilities) {
+    public static int discrete(RandomGenerator random, double[] probabilities) {
         if (probabilities == null) {
             throw new IllegalArgumentException("argument array is null");
         }
@@ -294,7 +297,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if frequencies[i] is negative for any index i
      * @throws IllegalArgumentException if sum of frequencies exceeds Integer.MAX_VALUE (2^31 - 1)
      */
-    public static int discrete(Random random, int[] frequencies) {
+    public static int discrete(RandomGenerator random, int[] frequencies) {
         if (frequencies == null) {
             throw new IllegalArgumentException("argument array is null");
         }
@@ -337,7 +340,7 @@ public class RandomUtils {
      * rate {@code lambda}
      * @throws IllegalArgumentException unless {@code lambda > 0.0}
      */
-    public static double exp(Random random, double lambda) {
+    public static double exp(RandomGenerator random, double lambda) {
         if (!(lambda > 0.0)) {
             throw new IllegalArgumentException("lambda must be positive: " + lambda);
         }
@@ -350,7 +353,7 @@ public class RandomUtils {
      * @param a the array to shuffle
      * @throws IllegalArgumentException if {@code a} is {@code null}
      */
-    public static void shuffle(Random random, Object[] a) {
+    public static void shuffle(RandomGenerator random, Object[] a) {
         validateNotNull(a);
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -367,7 +370,7 @@ public class RandomUtils {
      * @param a the array to shuffle
      * @throws IllegalArgumentException if {@code a} is {@code null}
      */
-    public static void shuffle(Random random, double[] a) {
+    public static void shuffle(RandomGenerator random, double[] a) {
         validateNotNull(a);
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -384,7 +387,7 @@ public class RandomUtils {
      * @param a the array to shuffle
      * @throws IllegalArgumentException if {@code a} is {@code null}
      */
-    public static void shuffle(Random random, int[] a) {
+    public static void shuffle(RandomGenerator random, int[] a) {
         validateNotNull(a);
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -401,7 +404,7 @@ public class RandomUtils {
      * @param a the array to shuffle
      * @throws IllegalArgumentException if {@code a} is {@code null}
      */
-    public static void shuffle(Random random, char[] a) {
+    public static void shuffle(RandomGenerator random, char[] a) {
         validateNotNull(a);
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -421,7 +424,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code a} is {@code null}
      * @throws IllegalArgumentException unless {@code (0 <= lo) && (lo < hi) && (hi <= a.length)}
      */
-    public static void shuffle(Random random, Object[] a, int lo, int hi) {
+    public static void shuffle(RandomGenerator random, Object[] a, int lo, int hi) {
         validateNotNull(a);
         validateSubarrayIndices(lo, hi, a.length);
 
@@ -442,7 +445,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code a} is {@code null}
      * @throws IllegalArgumentException unless {@code (0 <= lo) && (lo < hi) && (hi <= a.length)}
      */
-    public static void shuffle(Random random, double[] a, int lo, int hi) {
+    public static void shuffle(RandomGenerator random, double[] a, int lo, int hi) {
         validateNotNull(a);
         validateSubarrayIndices(lo, hi, a.length);
 
@@ -463,7 +466,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code a} is {@code null}
      * @throws IllegalArgumentException unless {@code (0 <= lo) && (lo < hi) && (hi <= a.length)}
      */
-    public static void shuffle(Random random, int[] a, int lo, int hi) {
+    public static void shuffle(RandomGenerator random, int[] a, int lo, int hi) {
         validateNotNull(a);
         validateSubarrayIndices(lo, hi, a.length);
 
@@ -483,7 +486,7 @@ public class RandomUtils {
      * of {@code 0}, {@code 1}, ..., {@code n-1}
      * @throws IllegalArgumentException if {@code n} is negative
      */
-    public static int[] permutation(Random random, int n) {
+    public static int[] permutation(RandomGenerator random, int n) {
         if (n < 0) {
             throw new IllegalArgumentException("argument is negative");
         }
@@ -505,7 +508,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code n} is negative
      * @throws IllegalArgumentException unless {@code 0 <= k <= n}
      */
-    public static int[] permutation(Random random, int n, int k) {
+    public static int[] permutation(RandomGenerator random, int n, int k) {
         if (n < 0) {
             throw new IllegalArgumentException("argument is negative");
         }
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import tileengine.AnsiRenderer;
+import tileengine.Camera;
+import tileengine.TETile;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AnsiRendererTests {
+    private static TETile[][] filled(int width, int height, TETile tile) {
+        TETile[][] world = new TETile[width][height];
+        for (TETile[] column : world) {
+            Arrays.fill(column, tile);
+        }
+        return world;
+    }
+
+    @Test
+    public void firstFrameSendsEveryCellThenOnlyChanges() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AnsiRenderer ansi = new AnsiRenderer(out);
+        TETile[][] world = filled(20, 10, Tileset.FLOOR);
+
+        ansi.renderFrame(world);
+        assertEquals(200, ansi.lastFrameCellCount());
+        String first = out.toString(StandardCharsets.UTF_8);
+        assertTrue(first.contains("\u001b[2J"));
+        // Every cell has the same colors, so they are sent once.
+        assertEquals(1, first.split("\u001b\\[38;2;", -1).length - 1);
+
+        out.reset();
+        ansi.renderFrame(world);
+        assertEquals(0, ansi.lastFrameCellCount());
+        assertEquals(0, out.size());
+
+        world[3][9] = Tileset.AVATAR;
+        world[4][9] = Tileset.WALL;
+        ansi.renderFrame(world);
+        assertEquals(2, ansi.lastFrameCellCount());
+        String step = out.toString(StandardCharsets.UTF_8);
+        // y = 9 is the top row; the two cells are adjacent, so one cursor move covers both.
+        assertTrue(step.startsWith("\u001b[1;4H"), step);
+        assertEquals(1, step.split("H", -1).length - 1);
+        assertTrue(step.endsWith("@\u001b[38;2;199;100;100m\u001b[48;2;255;0;0m#"), step);
+        assertEquals(out.size(), ansi.lastFrameByteCount());
+    }
+
+    @Test
+    public void gridWindowMatchesArrayWindow() throws Exception {
+        TileGrid grid = new TileGrid(50, 40);
+        grid.fill(Tileset.FLOOR);
+        grid.set(20, 20, Tileset.AVATAR);
+        grid.set(49, 39, Tileset.WALL);
+        Camera camera = new Camera(30, 12, 50, 40);
+        camera.centerOn(45, 35);
+
+        ByteArrayOutputStream fromGrid = new ByteArrayOutputStream();
+        new AnsiRenderer(fromGrid).renderFrame(grid, camera);
+        ByteArrayOutputStream fromArray = new ByteArrayOutputStream();
+        TETile[][] copy = filled(50, 40, Tileset.FLOOR);
+        copy[20][20] = Tileset.AVATAR;
+        copy[49][39] = Tileset.WALL;
+        new AnsiRenderer(fromArray).renderFrame(copy, camera);
+        assertEquals(fromArray.toString(StandardCharsets.UTF_8),
+                fromGrid.toString(StandardCharsets.UTF_8));
+    }
+}
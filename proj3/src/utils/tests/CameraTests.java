@@ -0,0 +1,42 @@
+import org.junit.jupiter.api.Test;
+import tileengine.Camera;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CameraTests {
+    @Test
+    public void centeringStopsAtWorldEdges() {
+        Camera camera = new Camera(70, 60, 1000, 1000);
+        camera.centerOn(500, 500);
+        assertEquals(465, camera.left());
+        assertEquals(470, camera.bottom());
+
+        camera.centerOn(3, 998);
+        assertEquals(0, camera.left());
+        assertEquals(940, camera.bottom());
+
+        // A world smaller than the window sits at the bottom left.
+        Camera small = new Camera(70, 60, 40, 30);
+        small.centerOn(20, 15);
+        assertEquals(0, small.left());
+        assertEquals(0, small.bottom());
+    }
+
+    @Test
+    public void followScrollsOnlyNearTheEdges() {
+        Camera camera = new Camera(70, 60, 1000, 1000);
+        camera.centerOn(500, 500);
+        camera.follow(510, 505);
+        assertEquals(465, camera.left());
+        assertEquals(470, camera.bottom());
+
+        // Walking right keeps the avatar a quarter of the window from the right edge.
+        for (int x = 510; x < 600; x++) {
+            camera.follow(x, 505);
+            assertTrue(camera.contains(x, 505));
+            assertTrue(x < camera.left() + 70 - 70 / 4 + 1);
+        }
+        assertEquals(599 - 70 + 70 / 4 + 1, camera.left());
+    }
+}
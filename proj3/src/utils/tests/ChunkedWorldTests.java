@@ -0,0 +1,85 @@
+import core.ChunkedWorld;
+import org.junit.jupiter.api.Test;
+import tileengine.TETile;
+import tileengine.Tileset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChunkedWorldTests {
+    private static final int SIZE = ChunkedWorld.CHUNK_SIZE;
+
+    @Test
+    public void evictedChunksComeBackIdentical() {
+        ChunkedWorld world = new ChunkedWorld(42, 1);
+        TETile[][] before = chunk(world, 3, -2);
+        // With room for one chunk, visiting any other chunk evicts this one.
+        world.getTile(0, 0);
+        TETile[][] after = chunk(world, 3, -2);
+        TETile[][] fresh = chunk(new ChunkedWorld(42), 3, -2);
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                assertSame(before[x][y], after[x][y], "x=" + x + ", y=" + y);
+                assertSame(before[x][y], fresh[x][y], "x=" + x + ", y=" + y);
+            }
+        }
+    }
+
+    @Test
+    public void doorsLineUpAcrossChunkEdges() {
+        ChunkedWorld world = new ChunkedWorld(7, 4);
+        for (int cx = -2; cx <= 2; cx++) {
+            for (int cy = -2; cy <= 2; cy++) {
+                int east = (cx + 1) * SIZE;
+                int north = (cy + 1) * SIZE;
+                for (int i = 0; i < SIZE; i++) {
+                    int x = cx * SIZE + i;
+                    int y = cy * SIZE + i;
+                    assertEquals(isFloor(world, east - 1, y), isFloor(world, east, y),
+                            "east edge of chunk " + cx + ", " + cy + " at y=" + y);
+                    assertEquals(isFloor(world, x, north - 1), isFloor(world, x, north),
+                            "north edge of chunk " + cx + ", " + cy + " at x=" + x);
+                }
+                assertEquals(1, doorsOnEdge(world, east - 1, cy * SIZE, 0, 1));
+                assertEquals(1, doorsOnEdge(world, cx * SIZE, north - 1, 1, 0));
+            }
+        }
+    }
+
+    @Test
+    public void cacheNeverGrowsPastItsLimit() {
+        ChunkedWorld world = new ChunkedWorld(3, 9);
+        TETile[][] view = new TETile[70][60];
+        for (int step = 0; step < 40 * SIZE; step += 13) {
+            world.fillView(view, step, step / 2);
+            assertTrue(world.cachedChunkCount() <= 9, "step " + step);
+        }
+        assertEquals(9, world.cachedChunkCount());
+    }
+
+    private static TETile[][] chunk(ChunkedWorld world, int cx, int cy) {
+        TETile[][] tiles = new TETile[SIZE][SIZE];
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                tiles[x][y] = world.getTile(cx * SIZE + x, cy * SIZE + y);
+            }
+        }
+        return tiles;
+    }
+
+    private static boolean isFloor(ChunkedWorld world, int x, int y) {
+        return world.getTile(x, y) == Tileset.FLOOR;
+    }
+
+    /** Floor tiles along the SIZE tiles from (x, y) in steps of (dx, dy). */
+    private static int doorsOnEdge(ChunkedWorld world, int x, int y, int dx, int dy) {
+        int floors = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (isFloor(world, x + i * dx, y + i * dy)) {
+                floors++;
+            }
+        }
+        return floors;
+    }
+}
@@ -0,0 +1,87 @@
+import core.ConnectivityReport;
+import core.ConnectivityValidator;
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.ArrayDeque;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectivityTests {
+    @Test
+    public void reportMatchesBreadthFirstSearch() {
+        for (long seed = 0; seed < 300; seed++) {
+            World world = new World();
+            world.generate(seed);
+            ConnectivityReport report = world.validateConnectivity(false);
+            TileGrid grid = world.getTileGrid();
+
+            int passable = 0;
+            int firstX = -1;
+            int firstY = -1;
+            for (int y = grid.height() - 1; y >= 0 && firstX < 0; y--) {
+                for (int x = 0; x < grid.width(); x++) {
+                    if (grid.is(x, y, Tileset.AVATAR)) {
+                        firstX = x;
+                        firstY = y;
+                        break;
+                    }
+                }
+            }
+            for (int x = 0; x < grid.width(); x++) {
+                for (int y = 0; y < grid.height(); y++) {
+                    passable += Tileset.isPassable(grid.id(x, y)) ? 1 : 0;
+                }
+            }
+            assertEquals(passable, report.passableTiles(), "seed " + seed);
+            assertEquals(bfsCount(grid, firstX, firstY), report.reachableTiles(), "seed " + seed);
+            int unreachable = 0;
+            for (ConnectivityReport.Region region : report.unreachableRegions()) {
+                unreachable += region.size();
+            }
+            assertEquals(passable - report.reachableTiles(), unreachable, "seed " + seed);
+        }
+    }
+
+    @Test
+    public void repairConnectsSealedRooms() {
+        // Generates with a sealed-off floor tile.
+        World world = new World();
+        world.generate(99906);
+        assertFalse(world.validateConnectivity(false).isConnected());
+
+        World repaired = new World();
+        repaired.getPipeline().add(ConnectivityValidator.stage(true));
+        repaired.generate(99906);
+        ConnectivityReport report = repaired.getConnectivityReport();
+        assertTrue(report.isConnected(), report.toString());
+        assertTrue(report.repairedRegions() > 0);
+        assertEquals(report.passableTiles(), report.reachableTiles());
+    }
+
+    private static int bfsCount(TileGrid grid, int fromX, int fromY) {
+        boolean[][] seen = new boolean[grid.width()][grid.height()];
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        seen[fromX][fromY] = true;
+        queue.add(new int[] {fromX, fromY});
+        int count = 0;
+        int[][] steps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        while (!queue.isEmpty()) {
+            int[] cell = queue.poll();
+            count++;
+            for (int[] step : steps) {
+                int x = cell[0] + step[0];
+                int y = cell[1] + step[1];
+                if (grid.inBounds(x, y) && !seen[x][y] && Tileset.isPassable(grid.id(x, y))) {
+                    seen[x][y] = true;
+                    queue.add(new int[] {x, y});
+                }
+            }
+        }
+        return count;
+    }
+}
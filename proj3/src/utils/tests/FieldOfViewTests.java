@@ -0,0 +1,49 @@
+import core.FieldOfView;
+import org.junit.jupiter.api.Test;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FieldOfViewTests {
+    @Test
+    public void openFloorSeesWholeDisc() {
+        TileGrid grid = new TileGrid(30, 30);
+        grid.fill(Tileset.FLOOR);
+        FieldOfView fov = new FieldOfView(grid, 7);
+        fov.compute(15, 15);
+
+        for (int x = 0; x < 30; x++) {
+            for (int y = 0; y < 30; y++) {
+                int dx = x - 15;
+                int dy = y - 15;
+                assertEquals(dx * dx + dy * dy <= 49, fov.isVisible(x, y), x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void wallsBlockButAreVisible() {
+        TileGrid grid = new TileGrid(30, 30);
+        grid.fill(Tileset.FLOOR);
+        for (int y = 0; y < 30; y++) {
+            grid.set(18, y, Tileset.WALL);
+        }
+        FieldOfView fov = new FieldOfView(grid, 7);
+        fov.compute(15, 15);
+
+        assertTrue(fov.isVisible(18, 15));
+        assertTrue(fov.isVisible(17, 15));
+        for (int y = 0; y < 30; y++) {
+            assertFalse(fov.isVisible(19, y), "19," + y);
+        }
+
+        // Moving the viewer drops everything seen from the old position.
+        grid.set(18, 15, Tileset.FLOOR);
+        fov.compute(5, 5);
+        assertFalse(fov.isVisible(15, 15));
+        assertTrue(fov.isVisible(9, 9));
+    }
+}
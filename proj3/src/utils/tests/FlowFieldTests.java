@@ -0,0 +1,124 @@
+import core.FlowField;
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlowFieldTests {
+    @Test
+    public void repairsMatchRebuildAsTargetsMove() {
+        checkRepairs(FlowField.UNREACHABLE - 1);
+    }
+
+    @Test
+    public void repairsMatchRebuildWithinMaxDistance() {
+        checkRepairs(25);
+    }
+
+    private static void checkRepairs(int maxDistance) {
+        Random random = new Random(14);
+        World world = new World(100, 80);
+        world.generate(14);
+        TileGrid grid = world.getTileGrid();
+        FlowField field = new FlowField(grid, maxDistance);
+
+        int[] target = randomPassable(grid, random);
+        field.setTarget(target[0], target[1]);
+        int[] second = randomPassable(grid, random);
+        for (int step = 0; step < 300; step++) {
+            // Wander one tile at a time, with an occasional teleport and a second target.
+            int[] next = {target[0] + random.nextInt(3) - 1, target[1]};
+            if (random.nextBoolean()) {
+                next = new int[] {target[0], target[1] + random.nextInt(3) - 1};
+            }
+            if (step % 50 == 49) {
+                next = randomPassable(grid, random);
+            }
+            if (grid.inBounds(next[0], next[1]) && Tileset.isPassable(grid.id(next[0], next[1]))) {
+                target = next;
+            }
+            field.setTarget(target[0], target[1]);
+            List<int[]> targets = List.of(target);
+            if (step % 20 >= 10) {
+                field.addTarget(second[0], second[1]);
+                targets = List.of(target, second);
+            } else {
+                field.removeTarget(second[0], second[1]);
+            }
+
+            int[][] expected = bfs(grid, targets);
+            for (int x = 0; x < grid.width(); x++) {
+                for (int y = 0; y < grid.height(); y++) {
+                    int want = expected[x][y] < 0 || expected[x][y] > maxDistance
+                            ? FlowField.UNREACHABLE : expected[x][y];
+                    assertEquals(want, field.distance(x, y), "step " + step + " at " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nextStepLeadsToTarget() {
+        World world = new World();
+        world.generate(4);
+        FlowField field = world.getFlowField();
+        TileGrid grid = world.getTileGrid();
+        for (int x = 0; x < grid.width(); x++) {
+            for (int y = 0; y < grid.height(); y++) {
+                int d = field.distance(x, y);
+                if (d == FlowField.UNREACHABLE || d == 0) {
+                    assertEquals(-1, field.nextStep(x, y));
+                    continue;
+                }
+                int next = field.nextStep(x, y);
+                assertTrue(next >= 0);
+                assertEquals(d - 1, field.distance(next / grid.height(), next % grid.height()));
+            }
+        }
+    }
+
+    private static int[] randomPassable(TileGrid grid, Random random) {
+        while (true) {
+            int x = random.nextInt(grid.width());
+            int y = random.nextInt(grid.height());
+            if (Tileset.isPassable(grid.id(x, y))) {
+                return new int[] {x, y};
+            }
+        }
+    }
+
+    private static int[][] bfs(TileGrid grid, List<int[]> targets) {
+        int[][] distance = new int[grid.width()][grid.height()];
+        for (int[] column : distance) {
+            Arrays.fill(column, -1);
+        }
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        for (int[] target : targets) {
+            if (distance[target[0]][target[1]] < 0) {
+                distance[target[0]][target[1]] = 0;
+                queue.add(target);
+            }
+        }
+        int[][] steps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        while (!queue.isEmpty()) {
+            int[] cell = queue.poll();
+            for (int[] step : steps) {
+                int x = cell[0] + step[0];
+                int y = cell[1] + step[1];
+                if (grid.inBounds(x, y) && distance[x][y] < 0 && Tileset.isPassable(grid.id(x, y))) {
+                    distance[x][y] = distance[cell[0]][cell[1]] + 1;
+                    queue.add(new int[] {x, y});
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,34 @@
+import core.Main;
+import core.World;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FogOfWarTests {
+    @Test
+    public void exploredTilesSurviveSaveAndLoad() throws IOException {
+        World world = new World();
+        world.generate(3);
+        int explored = world.getExplored().cardinality();
+        assertTrue(explored > 0);
+        assertTrue(explored < world.width() * world.height());
+
+        File save = File.createTempFile("fog", ".txt");
+        save.deleteOnExit();
+        Main.writeSave(world, save);
+        World loaded = Main.readSave(save);
+        assertEquals(explored, loaded.getExplored().cardinality());
+        assertTrue(Arrays.equals(world.getExplored().toByteArray(),
+                loaded.getExplored().toByteArray()));
+        for (int x = 0; x < world.width(); x++) {
+            for (int y = 0; y < world.height(); y++) {
+                assertEquals(world.isTileExplored(x, y), loaded.isTileExplored(x, y), x + "," + y);
+            }
+        }
+    }
+}
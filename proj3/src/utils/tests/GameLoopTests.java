@@ -0,0 +1,101 @@
+import core.GameLoop;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameLoopTests {
+    /** Keys that arrive on given ticks, so the test does not depend on timing. */
+    private static class ScriptedGame implements GameLoop.Game, GameLoop.Keys {
+        private final Deque<Character> pending = new ArrayDeque<>();
+        private final int lastTick;
+        private int tick;
+        private int keysHandled;
+        private int renders;
+
+        ScriptedGame(int lastTick) {
+            this.lastTick = lastTick;
+        }
+
+        @Override
+        public boolean hasNextKeyTyped() {
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public char nextKeyTyped() {
+            return pending.poll();
+        }
+
+        @Override
+        public boolean onKey(char key) {
+            keysHandled++;
+            return key != ':';
+        }
+
+        @Override
+        public boolean onTick() {
+            tick++;
+            if (tick == 10) {
+                pending.add('w');
+            } else if (tick == 20) {
+                pending.add(':');
+            }
+            return false;
+        }
+
+        @Override
+        public void render() {
+            renders++;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return tick < lastTick;
+        }
+    }
+
+    @Test
+    public void rendersOnlyWhenSomethingChanged() throws Exception {
+        ScriptedGame game = new ScriptedGame(40);
+        GameLoop loop = new GameLoop(1000, 1000, game);
+        loop.run(game);
+
+        assertEquals(40, loop.tickCount());
+        assertEquals(2, game.keysHandled);
+        // The first frame, then one for the key that changed something; ':' changed nothing.
+        assertEquals(2, game.renders);
+        assertEquals(2, loop.frameCount());
+    }
+
+    @Test
+    public void idleLoopParksInsteadOfSpinning() throws Exception {
+        ScriptedGame game = new ScriptedGame(200);
+        GameLoop loop = new GameLoop(1000, 60, game);
+        loop.run(game);
+
+        assertTrue(loop.busyFraction() < 0.5, "busy " + loop.busyFraction());
+    }
+
+    @Test
+    public void countersCoverTheRunInProgress() throws Exception {
+        GameLoop[] loop = new GameLoop[1];
+        double[] busyDuringRun = new double[1];
+        ScriptedGame game = new ScriptedGame(40) {
+            @Override
+            public boolean onKey(char key) {
+                // What a :q handler in Main sees: the run has not finished yet.
+                busyDuringRun[0] = loop[0].busyFraction();
+                return super.onKey(key);
+            }
+        };
+        loop[0] = new GameLoop(1000, 1000, game);
+        loop[0].run(game);
+
+        assertTrue(busyDuringRun[0] > 0, "busy " + busyDuringRun[0]);
+        assertTrue(loop[0].summary().startsWith("2 frames"), loop[0].summary());
+    }
+}
@@ -0,0 +1,76 @@
+import core.GenerationPipeline;
+import core.GenerationStage;
+import core.StageMetrics;
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.TETile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GenerationPipelineTests {
+    @Test
+    public void listenerSeesEveryStandardStage() {
+        World world = new World();
+        List<StageMetrics> seen = new ArrayList<>();
+        world.getPipeline().addListener(seen::add);
+        String withListener = TETile.toString(world.generate(5));
+
+        assertEquals(TETile.toString(new World().generate(5)), withListener);
+        assertEquals(world.getPipeline().stageNames().size(), seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            StageMetrics metrics = seen.get(i);
+            assertEquals(world.getPipeline().stageNames().get(i), metrics.stageName());
+            assertEquals(5L, metrics.seed());
+            assertTrue(metrics.elapsedNanos() >= 0, metrics.toString());
+        }
+        assertTrue(seen.getFirst().tilesTouched() >= (long) world.width() * world.height());
+    }
+
+    @Test
+    public void changingHallwaysLeavesRoomsAlone() {
+        World standard = new World();
+        List<String> standardRooms = new ArrayList<>();
+        standard.getPipeline().addAfter(GenerationPipeline.ROOMS, GenerationStage.of("snapshot",
+                c -> standardRooms.add(TETile.toString(c.tiles().asArray()))));
+        standard.generate(5);
+
+        // Another hallway stage, plus a stage before the rooms that drains every stream:
+        // each stage draws from its own stream, so the rooms come out the same.
+        World changed = new World();
+        List<String> changedRooms = new ArrayList<>();
+        changed.getPipeline()
+                .replace(GenerationPipeline.HALLWAYS, GenerationStage.of("no hallways",
+                        c -> c.streams().stream(World.STAGE_HALLWAYS).nextInt()))
+                .addAfter(GenerationPipeline.RESET, GenerationStage.of("drain", c -> {
+                    for (int stage = World.STAGE_ROOM_COUNT; stage <= World.STAGE_HALLWAYS;
+                            stage++) {
+                        c.streams().stream(stage).ints(1000).sum();
+                    }
+                }))
+                .addAfter(GenerationPipeline.ROOMS, GenerationStage.of("snapshot",
+                        c -> changedRooms.add(TETile.toString(c.tiles().asArray()))));
+        String changedWorld = TETile.toString(changed.generate(5));
+
+        assertEquals(standardRooms, changedRooms);
+        assertNotEquals(TETile.toString(new World().generate(5)), changedWorld);
+    }
+
+    @Test
+    public void replacedStageRunsInPlace() {
+        World world = new World();
+        List<Long> ran = new ArrayList<>();
+        world.getPipeline().replace(GenerationPipeline.HALLWAYS,
+                GenerationStage.of("no hallways", c -> ran.add(c.seed())));
+        world.generate(5);
+
+        assertEquals(List.of(5L), ran);
+        assertEquals(List.of(GenerationPipeline.RESET, GenerationPipeline.ROOMS, "no hallways",
+                GenerationPipeline.BORDER, GenerationPipeline.WALLS, GenerationPipeline.AVATAR),
+                world.getPipeline().stageNames());
+    }
+}
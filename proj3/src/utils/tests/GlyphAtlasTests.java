@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+import tileengine.GlyphAtlas;
+import tileengine.TETile;
+import tileengine.TileImages;
+import tileengine.Tileset;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GlyphAtlasTests {
+    @Test
+    public void tilesThatLookAlikeShareOneGlyph() {
+        GlyphAtlas atlas = new GlyphAtlas(16, new Font("Monaco", Font.BOLD, 14));
+        BufferedImage wall = atlas.glyph(Tileset.WALL);
+        assertEquals(16, wall.getWidth());
+        assertSame(wall, atlas.glyph(Tileset.WALL));
+
+        // A copy with the same character and colors is a different object but the same look.
+        TETile copy = new TETile(Tileset.WALL, Tileset.WALL.character());
+        assertSame(wall, atlas.glyph(copy));
+        assertNotSame(wall, atlas.glyph(Tileset.dimmed(Tileset.WALL)));
+        assertEquals(2, atlas.size());
+    }
+
+    @Test
+    public void glyphIsFilledWithTheBackground() {
+        GlyphAtlas atlas = new GlyphAtlas(16, new Font("Monaco", Font.BOLD, 14));
+        TETile tile = new TETile('.', Color.WHITE, new Color(10, 20, 30), "test", 99);
+        assertEquals(new Color(10, 20, 30).getRGB(), atlas.glyph(tile).getRGB(0, 0));
+    }
+
+    @Test
+    public void missingImageFallsBackToCharacter() {
+        GlyphAtlas atlas = new GlyphAtlas(16, new Font("Monaco", Font.BOLD, 14));
+        TETile tile = new TETile('@', Color.WHITE, new Color(1, 2, 3), "image", "no-such.png", 98);
+        assertEquals(new Color(1, 2, 3).getRGB(), atlas.glyph(tile).getRGB(0, 0));
+        assertTrue(TileImages.isMissing("no-such.png"));
+    }
+
+    @Test
+    public void imageTilesUseTheDecodedFile() throws IOException {
+        File file = File.createTempFile("tile", ".png");
+        file.deleteOnExit();
+        BufferedImage red = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        red.setRGB(3, 4, Color.RED.getRGB());
+        ImageIO.write(red, "png", file);
+
+        GlyphAtlas atlas = new GlyphAtlas(16, new Font("Monaco", Font.BOLD, 14));
+        TETile tile = new TETile('@', Color.WHITE, Color.BLACK, "image", file.getPath(), 97);
+        BufferedImage glyph = atlas.glyph(tile);
+        assertSame(TileImages.get(file.getPath()), glyph);
+        assertEquals(Color.RED.getRGB(), glyph.getRGB(3, 4));
+        assertEquals(0, atlas.size());
+    }
+
+    @Test
+    public void imagesResolveLikeStdDraw() throws Exception {
+        BufferedImage blue = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        blue.setRGB(0, 0, Color.BLUE.getRGB());
+
+        // StdDraw falls back to the root of the classpath for a relative name.
+        File root = new File(GlyphAtlasTests.class.getResource("GlyphAtlasTests.class").toURI())
+                .getParentFile();
+        File atRoot = new File(root, "glyph-atlas-root.png");
+        atRoot.deleteOnExit();
+        ImageIO.write(blue, "png", atRoot);
+        assertEquals(Color.BLUE.getRGB(), TileImages.get("glyph-atlas-root.png").getRGB(0, 0));
+
+        // Absolute URIs are read as URLs.
+        File file = File.createTempFile("tile", ".png");
+        file.deleteOnExit();
+        ImageIO.write(blue, "png", file);
+        assertEquals(Color.BLUE.getRGB(),
+                TileImages.get(file.toURI().toString()).getRGB(0, 0));
+    }
+}
@@ -0,0 +1,87 @@
+import core.HierarchicalPathFinder;
+import core.PathFinder;
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HierarchicalPathFinderTests {
+    @Test
+    public void followingRoutesReachesTarget() {
+        Random random = new Random(16);
+        World world = new World(300, 240);
+        world.generate(16);
+        TileGrid grid = world.getTileGrid();
+        HierarchicalPathFinder planner = world.getHierarchicalPathFinder();
+        PathFinder flat = new PathFinder(grid);
+        long totalWalked = 0;
+        long totalShortest = 0;
+        int longQueries = 0;
+        int abstractRoutes = 0;
+        for (int query = 0; query < 100; query++) {
+            int[] from = randomPassable(grid, random);
+            int[] to = randomPassable(grid, random);
+            int shortest = flat.distance(from[0], from[1], to[0], to[1]);
+            HierarchicalPathFinder.Route route = planner.findRoute(from[0], from[1], to[0], to[1]);
+            if (shortest < 0) {
+                assertEquals(null, route);
+                continue;
+            }
+            assertNotNull(route);
+            int[] segment = route.firstSegment();
+            int[] waypoints = route.waypoints();
+            assertEquals(flat.cell(from[0], from[1]), segment[0]);
+            assertEquals(waypoints[0], segment[segment.length - 1]);
+            assertEquals(flat.cell(to[0], to[1]), waypoints[waypoints.length - 1]);
+            for (int i = 1; i < segment.length; i++) {
+                int steps = Math.abs(flat.x(segment[i]) - flat.x(segment[i - 1]))
+                        + Math.abs(flat.y(segment[i]) - flat.y(segment[i - 1]));
+                assertEquals(1, steps);
+            }
+
+            if (Math.abs(to[0] - from[0]) + Math.abs(to[1] - from[1])
+                    > HierarchicalPathFinder.DIRECT_RANGE) {
+                longQueries++;
+                // A route through portals, not one long grid search.
+                if (waypoints.length > 1) {
+                    abstractRoutes++;
+                }
+            }
+
+            // Walking the waypoints leg by leg arrives, close to the true distance and no
+            // further than the planner estimated.
+            int walked = segment.length - 1;
+            for (int i = 1; i < waypoints.length; i++) {
+                int leg = flat.distance(flat.x(waypoints[i - 1]), flat.y(waypoints[i - 1]),
+                        flat.x(waypoints[i]), flat.y(waypoints[i]));
+                assertTrue(leg >= 0);
+                walked += leg;
+            }
+            assertTrue(walked <= route.estimatedLength());
+            assertTrue(walked <= shortest * 1.25 + HierarchicalPathFinder.DIRECT_RANGE,
+                    "walked " + walked + " for a shortest path of " + shortest);
+            totalWalked += walked;
+            totalShortest += shortest;
+        }
+        assertTrue(totalWalked <= totalShortest * 1.05,
+                "walked " + totalWalked + " in total against " + totalShortest);
+        assertTrue(abstractRoutes * 10 >= longQueries * 9,
+                abstractRoutes + " of " + longQueries + " long queries went through portals");
+    }
+
+    private static int[] randomPassable(TileGrid grid, Random random) {
+        while (true) {
+            int x = random.nextInt(grid.width());
+            int y = random.nextInt(grid.height());
+            if (Tileset.isPassable(grid.id(x, y))) {
+                return new int[] {x, y};
+            }
+        }
+    }
+}
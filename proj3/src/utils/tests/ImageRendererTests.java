@@ -0,0 +1,51 @@
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.GlyphAtlas;
+import tileengine.ImageRenderer;
+import tileengine.TETile;
+import tileengine.TileGrid;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ImageRendererTests {
+    @Test
+    public void everyTileMatchesItsGlyph() {
+        World world = new World();
+        TETile[][] tiles = world.generate(8);
+        BufferedImage image = new ImageRenderer(16, new ForkJoinPool(4)).render(tiles);
+        assertEquals(world.width() * 16, image.getWidth());
+        assertEquals(world.height() * 16, image.getHeight());
+
+        GlyphAtlas atlas = new GlyphAtlas(16, new Font("Monaco", Font.BOLD, 14));
+        for (int x = 0; x < world.width(); x++) {
+            for (int y = 0; y < world.height(); y++) {
+                BufferedImage glyph = atlas.glyph(tiles[x][y]);
+                int top = (world.height() - 1 - y) * 16;
+                for (int px = 0; px < 16; px += 5) {
+                    for (int py = 0; py < 16; py += 5) {
+                        assertEquals(glyph.getRGB(px, py), image.getRGB(x * 16 + px, top + py),
+                                x + "," + y);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void gridAndArrayRenderAlike() {
+        World world = new World();
+        TileGrid grid = world.generateGrid(8);
+        ImageRenderer renderer = new ImageRenderer(16, new ForkJoinPool(2));
+        BufferedImage fromGrid = renderer.render(grid);
+        BufferedImage fromArray = renderer.render(grid.asArray());
+        for (int px = 0; px < fromGrid.getWidth(); px += 7) {
+            for (int py = 0; py < fromGrid.getHeight(); py += 7) {
+                assertEquals(fromArray.getRGB(px, py), fromGrid.getRGB(px, py));
+            }
+        }
+    }
+}
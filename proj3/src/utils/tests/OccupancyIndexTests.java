@@ -0,0 +1,51 @@
+import core.OccupancyIndex;
+import org.junit.jupiter.api.Test;
+import tileengine.TileGrid;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OccupancyIndexTests {
+    @Test
+    public void matchesBruteForceAfterRandomAdds() {
+        Random random = new Random(4);
+        TileGrid grid = new TileGrid(37, 23);
+        for (int x = 0; x < grid.width(); x++) {
+            for (int y = 0; y < grid.height(); y++) {
+                grid.setOccupied(x, y, random.nextInt(20) == 0);
+            }
+        }
+        OccupancyIndex index = new OccupancyIndex(grid);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 5; i++) {
+                int x = random.nextInt(grid.width());
+                int y = random.nextInt(grid.height());
+                if (!grid.isOccupied(x, y)) {
+                    grid.setOccupied(x, y, true);
+                    index.add(x, y);
+                }
+            }
+            for (int query = 0; query < 40; query++) {
+                int x0 = random.nextInt(grid.width());
+                int y0 = random.nextInt(grid.height());
+                int x1 = x0 + random.nextInt(Math.min(12, grid.width() - x0));
+                int y1 = y0 + random.nextInt(Math.min(12, grid.height() - y0));
+                assertEquals(bruteForceFree(grid, x0, y0, x1, y1),
+                        index.isFree(x0, y0, x1, y1),
+                        "round " + round + ": " + x0 + "," + y0 + " to " + x1 + "," + y1);
+            }
+        }
+    }
+
+    private static boolean bruteForceFree(TileGrid grid, int x0, int y0, int x1, int y1) {
+        for (int x = x0; x <= x1; x++) {
+            for (int y = y0; y <= y1; y++) {
+                if (grid.isOccupied(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+import core.PathFinder;
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PathFinderTests {
+    @Test
+    public void routesAreShortestAndConnected() {
+        Random random = new Random(13);
+        for (long seed = 0; seed < 20; seed++) {
+            World world = new World(120, 90);
+            world.generate(seed);
+            TileGrid grid = world.getTileGrid();
+            PathFinder finder = world.getPathFinder();
+            for (int query = 0; query < 20; query++) {
+                int[] from = randomPassable(grid, random);
+                int[] to = randomPassable(grid, random);
+                int expected = bfsDistance(grid, from[0], from[1], to[0], to[1]);
+                assertEquals(expected, finder.distance(from[0], from[1], to[0], to[1]),
+                        "seed " + seed + " from " + Arrays.toString(from) + " to " + Arrays.toString(to));
+
+                int[] path = finder.findPath(from[0], from[1], to[0], to[1]);
+                if (expected < 0) {
+                    assertEquals(null, path);
+                    continue;
+                }
+                assertEquals(expected + 1, path.length);
+                assertEquals(finder.cell(from[0], from[1]), path[0]);
+                assertEquals(finder.cell(to[0], to[1]), path[path.length - 1]);
+                for (int i = 0; i < path.length; i++) {
+                    int x = finder.x(path[i]);
+                    int y = finder.y(path[i]);
+                    assertTrue(Tileset.isPassable(grid.id(x, y)));
+                    if (i > 0) {
+                        int steps = Math.abs(x - finder.x(path[i - 1])) + Math.abs(y - finder.y(path[i - 1]));
+                        assertEquals(1, steps);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int[] randomPassable(TileGrid grid, Random random) {
+        while (true) {
+            int x = random.nextInt(grid.width());
+            int y = random.nextInt(grid.height());
+            if (Tileset.isPassable(grid.id(x, y))) {
+                return new int[] {x, y};
+            }
+        }
+    }
+
+    private static int bfsDistance(TileGrid grid, int fromX, int fromY, int toX, int toY) {
+        int[][] distance = new int[grid.width()][grid.height()];
+        for (int[] column : distance) {
+            Arrays.fill(column, -1);
+        }
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        distance[fromX][fromY] = 0;
+        queue.add(new int[] {fromX, fromY});
+        int[][] steps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        while (!queue.isEmpty()) {
+            int[] cell = queue.poll();
+            for (int[] step : steps) {
+                int x = cell[0] + step[0];
+                int y = cell[1] + step[1];
+                if (grid.inBounds(x, y) && distance[x][y] < 0 && Tileset.isPassable(grid.id(x, y))) {
+                    distance[x][y] = distance[cell[0]][cell[1]] + 1;
+                    queue.add(new int[] {x, y});
+                }
+            }
+        }
+        return distance[toX][toY];
+    }
+}
@@ -0,0 +1,45 @@
+import core.Main;
+import core.World;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SaveGameTests {
+    @Test
+    public void largeWorldSurvivesSaveAndLoad() throws IOException {
+        World world = new World(400, 300);
+        world.generate(77);
+        File save = File.createTempFile("save", ".txt");
+        save.deleteOnExit();
+        Main.writeSave(world, save);
+        World loaded = Main.readSave(save);
+        assertEquals(400, loaded.width());
+        assertEquals(300, loaded.height());
+        assertEquals(world.getSeed(), loaded.getSeed());
+        for (int x = 0; x < world.width(); x++) {
+            for (int y = 0; y < world.height(); y++) {
+                assertEquals(world.getTile(x, y), loaded.getTile(x, y), x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void corruptSavesAreRejected() throws IOException {
+        assertThrows(IOException.class, () -> Main.readSave(saveWith("7\n1 1\n\n")));
+        assertThrows(IOException.class, () -> Main.readSave(saveWith("7\n1 1\n###\n##\n")));
+    }
+
+    private static File saveWith(String contents) throws IOException {
+        File save = File.createTempFile("corrupt", ".txt");
+        save.deleteOnExit();
+        try (FileWriter writer = new FileWriter(save)) {
+            writer.write(contents);
+        }
+        return save;
+    }
+}
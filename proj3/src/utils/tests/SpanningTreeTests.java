@@ -0,0 +1,125 @@
+import core.Hallway;
+import core.Room;
+import core.SpanningTree;
+import core.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SpanningTreeTests {
+    @Test
+    public void matchesBruteForceOnSmallInputs() {
+        Random random = new Random(5);
+        for (int round = 0; round < 200; round++) {
+            int n = 2 + random.nextInt(40);
+            List<int[]> corners = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                // Narrow ranges give many equal distances and some rooms on the same spot.
+                corners.add(new int[] {random.nextInt(60), random.nextInt(30)});
+            }
+            checkTree(corners);
+        }
+    }
+
+    @Test
+    public void fallsBackWhenNearestNeighboursAreDisconnected() {
+        // Two clusters of more than NEAREST + 1 rooms each, far apart: every room's nearest
+        // neighbours are in its own cluster, so the first round cannot join them.
+        List<int[]> corners = new ArrayList<>();
+        for (int i = 0; i < 2 * (SpanningTree.NEAREST + 4); i++) {
+            int offset = i % 2 == 0 ? 0 : 5000;
+            corners.add(new int[] {offset + i % 5, offset + i / 5});
+        }
+        checkTree(corners);
+    }
+
+    @Test
+    public void rejectsSquaredDistancesThatOverflow() {
+        List<Room> rooms = new ArrayList<>();
+        rooms.add(room(0, 0));
+        rooms.add(room(40000, 40000));
+        assertThrows(IllegalArgumentException.class, () -> SpanningTree.build(rooms));
+    }
+
+    /**
+     * Builds the tree over rooms at the given corners and checks it against Prim's algorithm
+     * over every pair. Rooms all have the same size, so center distances are corner
+     * distances.
+     */
+    private static void checkTree(List<int[]> corners) {
+        int n = corners.size();
+        List<Room> rooms = new ArrayList<>();
+        Map<Room, Integer> index = new IdentityHashMap<>();
+        for (int[] corner : corners) {
+            Room room = room(corner[0], corner[1]);
+            index.put(room, rooms.size());
+            rooms.add(room);
+        }
+        List<Hallway> tree = SpanningTree.build(rooms);
+        assertEquals(n - 1, tree.size());
+
+        int[] component = new int[n];
+        for (int i = 0; i < n; i++) {
+            component[i] = i;
+        }
+        long weight = 0;
+        for (Hallway hallway : tree) {
+            int a = index.get(hallway.getFrom());
+            int b = index.get(hallway.getTo());
+            assertEquals(squaredDistance(corners.get(a), corners.get(b)), hallway.getDistance());
+            weight += hallway.getDistance();
+            int from = component[a];
+            int to = component[b];
+            for (int i = 0; i < n; i++) {
+                if (component[i] == from) {
+                    component[i] = to;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(component[0], component[i], "room " + i + " is not connected");
+        }
+        assertEquals(primWeight(corners), weight);
+    }
+
+    private static long primWeight(List<int[]> corners) {
+        int n = corners.size();
+        long[] best = new long[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(best, Long.MAX_VALUE);
+        best[0] = 0;
+        long weight = 0;
+        for (int step = 0; step < n; step++) {
+            int next = -1;
+            for (int i = 0; i < n; i++) {
+                if (!inTree[i] && (next < 0 || best[i] < best[next])) {
+                    next = i;
+                }
+            }
+            inTree[next] = true;
+            weight += best[next];
+            for (int i = 0; i < n; i++) {
+                best[i] = Math.min(best[i], squaredDistance(corners.get(next), corners.get(i)));
+            }
+        }
+        return weight;
+    }
+
+    private static long squaredDistance(int[] a, int[] b) {
+        long dx = a[0] - b[0];
+        long dy = a[1] - b[1];
+        return dx * dx + dy * dy;
+    }
+
+    private static Room room(int x, int y) {
+        return new Room(0, 0, x, y, World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+    }
+}
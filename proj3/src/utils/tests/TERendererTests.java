@@ -0,0 +1,89 @@
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.Camera;
+import tileengine.ImageCanvas;
+import tileengine.TERenderer;
+import tileengine.TETile;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TERendererTests {
+    @Test
+    public void oneStepRedrawsTwoTiles()
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        World world = new World();
+        world.setSoundEnabled(false);
+        world.generate(7);
+        TERenderer renderer = new TERenderer(new ImageCanvas());
+        renderer.initialize(world.width(), world.height());
+
+        renderer.renderFrame(world.getTiles());
+        assertEquals(world.width() * world.height(), renderer.lastFrameDrawCount());
+        renderer.renderFrame(world.getTiles());
+        assertEquals(0, renderer.lastFrameDrawCount());
+
+        TETile[][] before = TETile.copyOf(world.getTiles());
+        step(world);
+        renderer.renderFrame(world.getTiles());
+        assertEquals(2, changedCells(before, world.getTiles()));
+        assertEquals(2, renderer.lastFrameDrawCount());
+    }
+
+    @Test
+    public void cameraFrameRedrawsOnlyChangedTiles()
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        World world = new World(300, 240);
+        world.setSoundEnabled(false);
+        world.generate(7);
+        TileGrid grid = world.getTileGrid();
+        Camera camera = new Camera(70, 60, world.width(), world.height());
+        for (int x = 0; x < grid.width(); x++) {
+            for (int y = 0; y < grid.height(); y++) {
+                if (grid.is(x, y, Tileset.AVATAR)) {
+                    camera.centerOn(x, y);
+                }
+            }
+        }
+        TERenderer renderer = new TERenderer(new ImageCanvas());
+        renderer.initialize(camera.width(), camera.height());
+
+        renderer.renderFrame(grid, camera);
+        assertEquals(camera.width() * camera.height(), renderer.lastFrameDrawCount());
+
+        // The camera stays put, so only the avatar's old and new tiles change on screen.
+        step(world);
+        renderer.renderFrame(grid, camera);
+        assertEquals(2, renderer.lastFrameDrawCount());
+    }
+
+    /** Moves the avatar one step in the first direction that is open. */
+    private static void step(World world)
+            throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        for (char direction : "wasd".toCharArray()) {
+            TETile[][] before = TETile.copyOf(world.getTiles());
+            world.moveAvatar(direction);
+            if (changedCells(before, world.getTiles()) > 0) {
+                return;
+            }
+        }
+        throw new AssertionError("the avatar is walled in");
+    }
+
+    private static int changedCells(TETile[][] a, TETile[][] b) {
+        int changed = 0;
+        for (int x = 0; x < a.length; x++) {
+            for (int y = 0; y < a[x].length; y++) {
+                if (a[x][y] != b[x][y]) {
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,31 @@
+import org.junit.jupiter.api.Test;
+import tileengine.TETile;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.awt.Color;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TileGridTests {
+    @Test
+    public void unknownIdsAreRejectedBeforeWriting() {
+        TileGrid grid = new TileGrid(4, 3);
+        grid.fill(Tileset.FLOOR);
+        TETile[][] view = grid.asArray();
+        long writes = grid.writeCount();
+        // 200 would set the occupancy bit; 100 fits the id bits but is not a Tileset id.
+        for (int id : new int[] {200, 100, Tileset.count()}) {
+            TETile bogus = new TETile('?', Color.RED, Color.BLACK, "bogus", id);
+            assertThrows(IllegalArgumentException.class, () -> grid.set(1, 1, bogus));
+            assertThrows(IllegalArgumentException.class, () -> grid.fill(bogus));
+        }
+        assertSame(Tileset.FLOOR, grid.get(1, 1));
+        assertSame(Tileset.FLOOR, view[1][1]);
+        assertFalse(grid.isOccupied(1, 1));
+        assertEquals(writes, grid.writeCount());
+    }
+}
@@ -0,0 +1,71 @@
+import core.FieldOfView;
+import core.VisibilityBatch;
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.TileBitSet;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VisibilityBatchTests {
+    @Test
+    public void matchesSingleViewerFieldOfView() {
+        World world = new World();
+        TileGrid grid = world.generateGrid(31);
+        int count = 300;
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        Random random = new Random(31);
+        for (int i = 0; i < count; i++) {
+            do {
+                xs[i] = random.nextInt(grid.width());
+                ys[i] = random.nextInt(grid.height());
+            } while (!Tileset.isPassable(grid.id(xs[i], ys[i])));
+        }
+        VisibilityBatch batch = new VisibilityBatch(grid);
+        batch.compute(xs, ys, count);
+
+        FieldOfView fov = new FieldOfView(grid);
+        for (int i = 0; i < count; i++) {
+            fov.compute(xs[i], ys[i]);
+            TileBitSet merged = new TileBitSet(grid.width(), grid.height());
+            batch.addVisibleTo(i, merged);
+            assertEquals(fov.visible().cardinality(), batch.visibleCount(i));
+            for (int x = 0; x < grid.width(); x++) {
+                for (int y = 0; y < grid.height(); y++) {
+                    assertEquals(fov.isVisible(x, y), batch.canSee(i, x, y), i + ": " + x + "," + y);
+                    assertEquals(fov.isVisible(x, y), merged.get(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void wallBetweenViewersHidesThem() {
+        TileGrid grid = new TileGrid(20, 20);
+        grid.fill(Tileset.FLOOR);
+        VisibilityBatch batch = new VisibilityBatch(grid);
+        int[] xs = {5, 9, 13};
+        int[] ys = {10, 10, 10};
+        batch.compute(xs, ys, 3);
+        assertTrue(batch.canSeeViewer(0, 1));
+        assertFalse(batch.canSeeViewer(0, 2));
+
+        int[] seen = new int[2];
+        assertEquals(2, batch.visibleViewers(1, seen));
+
+        // The shared wall set picks up changes made to the grid since the last batch.
+        for (int y = 0; y < 20; y++) {
+            grid.set(7, y, Tileset.WALL);
+        }
+        batch.compute(xs, ys, 3);
+        assertFalse(batch.canSeeViewer(0, 1));
+        assertEquals(1, batch.visibleViewers(1, seen));
+        assertEquals(2, seen[0]);
+    }
+}
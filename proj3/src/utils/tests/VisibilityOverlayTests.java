@@ -0,0 +1,49 @@
+import core.VisibilityOverlay;
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.MaskOverlay;
+import tileengine.TETile;
+import tileengine.TileBitSet;
+import tileengine.Tileset;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VisibilityOverlayTests {
+    @Test
+    public void fogFollowsLineOfSight() {
+        World world = new World();
+        TETile[][] tiles = world.generate(3);
+        VisibilityOverlay fog = new VisibilityOverlay(world);
+
+        // With line of sight off every tile shows through unchanged.
+        assertSame(tiles[0][0], fog.apply(0, 0, tiles[0][0]));
+
+        world.toggleLineOfSight();
+        int visible = 0;
+        for (int x = 0; x < world.width(); x++) {
+            for (int y = 0; y < world.height(); y++) {
+                TETile expected;
+                if (world.isTileVisible(x, y)) {
+                    expected = tiles[x][y];
+                    visible++;
+                } else if (world.isTileExplored(x, y)) {
+                    expected = Tileset.dimmed(tiles[x][y]);
+                } else {
+                    expected = Tileset.NOTHING;
+                }
+                assertSame(expected, fog.apply(x, y, tiles[x][y]), x + "," + y);
+            }
+        }
+        assertTrue(visible > 0 && visible < world.width() * world.height());
+    }
+
+    @Test
+    public void maskReplacesOnlyMarkedTiles() {
+        TileBitSet mask = new TileBitSet(10, 10);
+        mask.set(2, 3);
+        MaskOverlay highlight = new MaskOverlay(mask, Tileset::dimmed);
+        assertSame(Tileset.dimmed(Tileset.FLOOR), highlight.apply(2, 3, Tileset.FLOOR));
+        assertSame(Tileset.FLOOR, highlight.apply(3, 3, Tileset.FLOOR));
+    }
+}
@@ -0,0 +1,78 @@
+import core.World;
+import org.junit.jupiter.api.Test;
+import tileengine.TileGrid;
+import tileengine.Tileset;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WallFinalizationTests {
+    @Test
+    public void incrementalMatchesFullRescan() {
+        Random random = new Random(61);
+        for (long seed = 0; seed < 20; seed++) {
+            World world = new World();
+            world.generate(seed);
+            for (int edit = 0; edit < 40; edit++) {
+                int x = 1 + random.nextInt(world.width() - 2);
+                int y = 1 + random.nextInt(world.height() - 2);
+                switch (random.nextInt(4)) {
+                    case 0 -> world.carve(x, y);
+                    case 1 -> world.setTile(x, y, Tileset.FLOOR);
+                    case 2 -> world.setTile(x, y, Tileset.NOTHING);
+                    default -> world.placeRoom(x, y, 4 + random.nextInt(6), 4 + random.nextInt(6));
+                }
+            }
+            TileGrid expected = copy(world.getTileGrid());
+            fullRescan(expected);
+            world.finalizeWalls();
+            for (int x = 0; x < world.width(); x++) {
+                for (int y = 0; y < world.height(); y++) {
+                    assertEquals(expected.id(x, y), world.getTileGrid().id(x, y),
+                            "seed " + seed + " at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void placedRoomsKeepARingFree() {
+        World world = new World(40, 40);
+        world.getTileGrid().fill(Tileset.NOTHING);
+        assertTrue(world.placeRoom(5, 5, 6, 6));
+        // Flush against the first room's right and top walls: no ring between them.
+        assertFalse(world.placeRoom(11, 5, 5, 5));
+        assertFalse(world.placeRoom(5, 11, 5, 5));
+        // One free tile between the walls is enough.
+        assertTrue(world.placeRoom(12, 5, 5, 5));
+        assertTrue(world.placeRoom(5, 12, 5, 5));
+    }
+
+    private static TileGrid copy(TileGrid grid) {
+        TileGrid copy = new TileGrid(grid.width(), grid.height());
+        for (int x = 0; x < grid.width(); x++) {
+            for (int y = 0; y < grid.height(); y++) {
+                copy.set(x, y, grid.get(x, y));
+            }
+        }
+        return copy;
+    }
+
+    /** The whole-grid floor-to-wall pass World.generate used to run. */
+    private static void fullRescan(TileGrid grid) {
+        for (int i = 0; i < grid.width(); i++) {
+            for (int j = 0; j < grid.height(); j++) {
+                if (grid.is(i, j, Tileset.FLOOR)
+                        && ((i > 0 && grid.is(i - 1, j, Tileset.NOTHING))
+                        || (i < grid.width() - 1 && grid.is(i + 1, j, Tileset.NOTHING))
+                        || (j > 0 && grid.is(i, j - 1, Tileset.NOTHING))
+                        || (j < grid.height() - 1 && grid.is(i, j + 1, Tileset.NOTHING)))) {
+                    grid.set(i, j, Tileset.WALL);
+                }
+            }
+        }
+    }
+}
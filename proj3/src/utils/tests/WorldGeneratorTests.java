@@ -0,0 +1,24 @@
+import core.World;
+import core.WorldGenerator;
+import org.junit.jupiter.api.Test;
+import tileengine.TETile;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WorldGeneratorTests {
+    @Test
+    public void batchMatchesSingleThreaded() {
+        Map<Long, String> batch = new ConcurrentHashMap<>();
+        WorldGenerator.BatchStats stats = new WorldGenerator().generate(0, 200,
+                (seed, world) -> batch.put(seed, TETile.toString(world.getTiles())));
+
+        assertEquals(200, stats.worldCount());
+        for (long seed = 0; seed < 200; seed++) {
+            String expected = TETile.toString(new World().generate(seed));
+            assertEquals(expected, batch.get(seed), "seed " + seed);
+        }
+    }
+}
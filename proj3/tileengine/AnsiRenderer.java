@@ -0,0 +1,168 @@
+package tileengine;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Renders tiles to a terminal with ANSI escape sequences, one character cell per tile, for
+ * playing over SSH or on a machine with no display. Colors are sent as 24-bit foreground
+ * and background codes taken from each tile's text and background colors.
+ *
+ * Like TERenderer, it remembers the tile drawn in every cell and sends only the cells
+ * that changed, each run of adjacent changed cells preceded by one cursor move. Colors
+ * are only re-sent when they differ from the last cell written. A whole frame is built in
+ * memory and sent with a single write, so a step of the avatar costs a few dozen bytes
+ * rather than a full screen.
+ *
+ * Cells are assumed to be one column wide. Tiles whose character a terminal draws double
+ * width will push the rest of their row right on that terminal.
+ */
+public class AnsiRenderer {
+    private static final String ESC = "\u001b[";
+
+    private final OutputStream out;
+    private final StringBuilder frame = new StringBuilder();
+    private TETile[][] drawn;
+    private TileOverlay[] overlays = new TileOverlay[0];
+    private int cursorRow;
+    private int cursorColumn;
+    private int foreground;
+    private int background;
+    private int lastFrameCells;
+    private int lastFrameBytes;
+
+    /**
+     * @param out where escape sequences are written, usually System.out
+     */
+    public AnsiRenderer(OutputStream out) {
+        this.out = out;
+    }
+
+    /** Renders all of world, top row first. */
+    public void renderFrame(TETile[][] world) throws IOException {
+        renderWindow(world, null, 0, 0, world.length, world[0].length);
+    }
+
+    /** Renders the part of world inside the camera's window. */
+    public void renderFrame(TETile[][] world, Camera camera) throws IOException {
+        renderWindow(world, null, camera.left(), camera.bottom(), camera.width(),
+                camera.height());
+    }
+
+    /**
+     * Renders the part of tiles inside the camera's window, reading only the cells in the
+     * window, so no TETile[][] mirror of the grid is built.
+     */
+    public void renderFrame(TileGrid tiles, Camera camera) throws IOException {
+        renderWindow(null, tiles, camera.left(), camera.bottom(), camera.width(),
+                camera.height());
+    }
+
+    /** Adds a layer applied to every tile drawn, after the layers added before it. */
+    public void addOverlay(TileOverlay overlay) {
+        if (overlay == null) {
+            throw new IllegalArgumentException("overlay must not be null");
+        }
+        overlays = Arrays.copyOf(overlays, overlays.length + 1);
+        overlays[overlays.length - 1] = overlay;
+    }
+
+    /** Makes the next frame clear the screen and send every cell. */
+    public void invalidate() {
+        drawn = null;
+    }
+
+    /** Number of cells the last frame sent. */
+    public int lastFrameCellCount() {
+        return lastFrameCells;
+    }
+
+    /** Number of bytes the last frame wrote. */
+    public int lastFrameByteCount() {
+        return lastFrameBytes;
+    }
+
+    /**
+     * Resets colors, shows the cursor again and moves it below the last frame, leaving the
+     * terminal ready for ordinary output. Does not close the stream.
+     */
+    public void close() throws IOException {
+        int rows = drawn == null ? 0 : drawn[0].length;
+        out.write((ESC + "0m" + ESC + (rows + 1) + ";1H" + ESC + "?25h")
+                .getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        drawn = null;
+    }
+
+    private void renderWindow(TETile[][] world, TileGrid grid, int left, int bottom,
+                              int columns, int rows) throws IOException {
+        frame.setLength(0);
+        if (drawn == null || drawn.length != columns || drawn[0].length != rows) {
+            drawn = new TETile[columns][rows];
+            // Clear, hide the cursor, and forget the terminal's colors and cursor position.
+            frame.append(ESC).append("0m").append(ESC).append("2J").append(ESC).append("?25l");
+            foreground = -1;
+            background = -1;
+            cursorRow = -1;
+        }
+        int cells = 0;
+        // Terminal row 1 is the top of the screen, which is the highest y of the window.
+        for (int row = 0; row < rows; row++) {
+            int y = rows - 1 - row;
+            int worldY = bottom + y;
+            for (int x = 0; x < columns; x++) {
+                int worldX = left + x;
+                TETile tile = TERenderer.tileAt(world, grid, worldX, worldY);
+                if (tile == null) {
+                    throw new IllegalArgumentException("Tile at position x=" + worldX
+                            + ", y=" + worldY + " is null.");
+                }
+                for (TileOverlay overlay : overlays) {
+                    tile = overlay.apply(worldX, worldY, tile);
+                }
+                if (tile == drawn[x][y]) {
+                    continue;
+                }
+                if (cursorRow != row || cursorColumn != x) {
+                    frame.append(ESC).append(row + 1).append(';').append(x + 1).append('H');
+                }
+                appendColors(tile);
+                frame.append(tile.character());
+                drawn[x][y] = tile;
+                cursorRow = row;
+                cursorColumn = x + 1;
+                cells++;
+            }
+        }
+        lastFrameCells = cells;
+        if (frame.length() == 0) {
+            lastFrameBytes = 0;
+            return;
+        }
+        byte[] bytes = frame.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        out.flush();
+        lastFrameBytes = bytes.length;
+    }
+
+    private void appendColors(TETile tile) {
+        int text = tile.textColor().getRGB() & 0xFFFFFF;
+        int back = tile.backgroundColor().getRGB() & 0xFFFFFF;
+        if (text != foreground) {
+            appendColor("38", tile.textColor());
+            foreground = text;
+        }
+        if (back != background) {
+            appendColor("48", tile.backgroundColor());
+            background = back;
+        }
+    }
+
+    private void appendColor(String layer, Color color) {
+        frame.append(ESC).append(layer).append(";2;").append(color.getRed()).append(';')
+                .append(color.getGreen()).append(';').append(color.getBlue()).append('m');
+    }
+}
@@ -0,0 +1,89 @@
+package tileengine;
+
+/**
+ * A width x height window onto a larger world, for drawing maps bigger than the screen.
+ * The camera scrolls to keep a followed point away from the window's edges and never
+ * shows space past the world's edges unless the world is smaller than the window, in
+ * which case the world sits at the bottom left.
+ *
+ * Following uses a dead zone: the window only moves once the point comes within a
+ * quarter of the window of an edge, and then by as little as possible. Small moves
+ * therefore leave the window still, which keeps TERenderer's frames to a few changed
+ * tiles instead of a full scroll.
+ */
+public class Camera {
+    private final int width;
+    private final int height;
+    private final int worldWidth;
+    private final int worldHeight;
+    private int left;
+    private int bottom;
+
+    /**
+     * @param width width of the window in tiles
+     * @param height height of the window in tiles
+     * @param worldWidth width of the world in tiles
+     * @param worldHeight height of the world in tiles
+     */
+    public Camera(int width, int height, int worldWidth, int worldHeight) {
+        if (width <= 0 || height <= 0 || worldWidth <= 0 || worldHeight <= 0) {
+            throw new IllegalArgumentException("invalid camera size: " + width + "x" + height
+                    + " over " + worldWidth + "x" + worldHeight);
+        }
+        this.width = width;
+        this.height = height;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /** Moves the window so x, y is as close to its center as the world's edges allow. */
+    public void centerOn(int x, int y) {
+        left = clamp(x - width / 2, worldWidth - width);
+        bottom = clamp(y - height / 2, worldHeight - height);
+    }
+
+    /** Scrolls the window just enough to keep x, y out of the dead zone along its edges. */
+    public void follow(int x, int y) {
+        int marginX = width / 4;
+        int marginY = height / 4;
+        if (x < left + marginX) {
+            left = x - marginX;
+        } else if (x >= left + width - marginX) {
+            left = x - width + marginX + 1;
+        }
+        if (y < bottom + marginY) {
+            bottom = y - marginY;
+        } else if (y >= bottom + height - marginY) {
+            bottom = y - height + marginY + 1;
+        }
+        left = clamp(left, worldWidth - width);
+        bottom = clamp(bottom, worldHeight - height);
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /** World x of the window's leftmost column. */
+    public int left() {
+        return left;
+    }
+
+    /** World y of the window's bottom row. */
+    public int bottom() {
+        return bottom;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /** Whether the world tile at x, y is inside the window. */
+    public boolean contains(int x, int y) {
+        return x >= left && x < left + width && y >= bottom && y < bottom + height;
+    }
+}
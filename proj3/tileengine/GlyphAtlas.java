@@ -0,0 +1,97 @@
+package tileengine;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered images of tiles, so drawing a tile is one image copy instead of a filled
+ * square plus a text layout. Each distinct look (character, text color, background color)
+ * is rasterized once, the first time it is asked for, and shared by every tile that looks
+ * the same, such as the color variants of one tile that happen to land on equal colors.
+ *
+ * Glyphs are laid out the way StdDraw.text lays out a single character, so they match
+ * what TETile.draw produces. A tile with an image file gets its decoded image from
+ * TileImages instead, or its character glyph if the image cannot be loaded.
+ */
+public class GlyphAtlas {
+    private final int tileSize;
+    private final Font font;
+    private final Map<TETile, BufferedImage> byTile = new IdentityHashMap<>();
+    private final Map<Long, BufferedImage> byLook = new HashMap<>();
+
+    /**
+     * @param tileSize width and height of every glyph, in pixels
+     * @param font font characters are drawn in
+     */
+    public GlyphAtlas(int tileSize, Font font) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("tile size must be positive: " + tileSize);
+        }
+        this.tileSize = tileSize;
+        this.font = font;
+    }
+
+    public int tileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Returns the image of the given tile, rasterizing it on first use. Image files are
+     * returned at their own size, which may differ from tileSize.
+     */
+    public BufferedImage glyph(TETile tile) {
+        BufferedImage glyph = byTile.get(tile);
+        if (glyph != null) {
+            return glyph;
+        }
+        if (tile.filepath() != null) {
+            glyph = TileImages.get(tile.filepath());
+            if (glyph != null) {
+                byTile.put(tile, glyph);
+                return glyph;
+            }
+        }
+        long look = (long) tile.character() << 48
+                | (long) (tile.textColor().getRGB() & 0xFFFFFF) << 24
+                | tile.backgroundColor().getRGB() & 0xFFFFFF;
+        glyph = byLook.get(look);
+        if (glyph == null) {
+            glyph = rasterize(tile);
+            byLook.put(look, glyph);
+        }
+        byTile.put(tile, glyph);
+        return glyph;
+    }
+
+    /** Number of distinct character glyphs rasterized so far. */
+    public int size() {
+        return byLook.size();
+    }
+
+    private BufferedImage rasterize(TETile tile) {
+        BufferedImage image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(tile.backgroundColor());
+        g.fillRect(0, 0, tileSize, tileSize);
+        g.setColor(tile.textColor());
+        g.setFont(font);
+        // Centered the same way StdDraw.text centers a string on a point.
+        FontMetrics metrics = g.getFontMetrics();
+        String text = Character.toString(tile.character());
+        float x = tileSize / 2f - metrics.stringWidth(text) / 2f;
+        float y = tileSize / 2f + metrics.getDescent();
+        g.drawString(text, x, y);
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,67 @@
+package tileengine;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * A TileCanvas backed by a BufferedImage, for running TERenderer without a display. Each
+ * tile is one copy of its glyph from a GlyphAtlas, so the image matches what the game
+ * window shows. Drawing is immediate; show does nothing.
+ */
+public class ImageCanvas implements TileCanvas {
+    private final GlyphAtlas atlas;
+    private final int tileSize;
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private int rows;
+
+    public ImageCanvas() {
+        this(TERenderer.TILE_SIZE);
+    }
+
+    /**
+     * @param tileSize width and height of a tile in pixels
+     */
+    public ImageCanvas(int tileSize) {
+        this.tileSize = tileSize;
+        this.atlas = new GlyphAtlas(tileSize, new Font("Monaco", Font.BOLD, tileSize - 2));
+    }
+
+    @Override
+    public void open(int width, int height) {
+        if (graphics != null) {
+            graphics.dispose();
+        }
+        image = new BufferedImage(width * tileSize, height * tileSize,
+                BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        rows = height;
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+    }
+
+    @Override
+    public void drawTile(TETile tile, int x, int y) {
+        BufferedImage glyph = atlas.glyph(tile);
+        // Image files keep their own size; center them on the tile like StdDraw.picture.
+        int left = x * tileSize + (tileSize - glyph.getWidth()) / 2;
+        int top = (rows - 1 - y) * tileSize + (tileSize - glyph.getHeight()) / 2;
+        graphics.drawImage(glyph, left, top, null);
+    }
+
+    @Override
+    public void show() {
+    }
+
+    /** The canvas's image, or null before open. */
+    public BufferedImage image() {
+        return image;
+    }
+}
@@ -0,0 +1,177 @@
+package tileengine;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Serial;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws a TETile[][] or a TileGrid into a BufferedImage without StdDraw, so worlds can be
+ * rendered on a machine with no display (java.awt.headless=true). Glyphs come from a
+ * GlyphAtlas, which lays them out the way TETile.draw does, so images match the game window.
+ *
+ * Each glyph's pixels are copied straight into the image's pixel array. Images taller than
+ * a band of ROWS_PER_TASK tile rows are split into bands that are filled in parallel on
+ * a fork-join pool; bands write disjoint pixel rows, so they need no locking.
+ */
+public class ImageRenderer {
+    public static final int DEFAULT_TILE_SIZE = 16;
+    /** Tile rows per leaf task before the pool stops splitting the image. */
+    private static final int ROWS_PER_TASK = 8;
+
+    private final int tileSize;
+    private final ForkJoinPool pool;
+    private final GlyphAtlas atlas;
+    /** Pixels of every glyph handed out so far, tileSize x tileSize each. Guarded by this. */
+    private final Map<BufferedImage, int[]> glyphPixels = new IdentityHashMap<>();
+
+    public ImageRenderer() {
+        this(DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param tileSize width and height of a tile in pixels
+     * @param pool pool bands are rendered on
+     */
+    public ImageRenderer(int tileSize, ForkJoinPool pool) {
+        this.tileSize = tileSize;
+        this.pool = pool;
+        this.atlas = new GlyphAtlas(tileSize, new Font("Monaco", Font.BOLD, tileSize - 2));
+    }
+
+    public int tileSize() {
+        return tileSize;
+    }
+
+    /** Renders world into a new image, tileSize pixels per tile, y = 0 at the bottom. */
+    public BufferedImage render(TETile[][] world) {
+        BufferedImage image = new BufferedImage(world.length * tileSize,
+                world[0].length * tileSize, BufferedImage.TYPE_INT_RGB);
+        render(world, image);
+        return image;
+    }
+
+    /**
+     * Renders tiles into a new image. Cells are read with TileGrid.get, so no TETile[][]
+     * mirror of the grid is built.
+     */
+    public BufferedImage render(TileGrid tiles) {
+        BufferedImage image = new BufferedImage(tiles.width() * tileSize,
+                tiles.height() * tileSize, BufferedImage.TYPE_INT_RGB);
+        render(tiles, image);
+        return image;
+    }
+
+    /**
+     * Renders world into image, which must be a TYPE_INT_RGB image exactly the world's size
+     * in pixels. Lets a caller reuse one image for many worlds of the same size.
+     */
+    public void render(TETile[][] world, BufferedImage image) {
+        renderInto(world, null, world.length, world[0].length, image);
+    }
+
+    /** Renders tiles into image, which must be a TYPE_INT_RGB image of the grid's size. */
+    public void render(TileGrid tiles, BufferedImage image) {
+        renderInto(null, tiles, tiles.width(), tiles.height(), image);
+    }
+
+    /** Renders whichever of world and grid is not null. */
+    private void renderInto(TETile[][] world, TileGrid grid, int columns, int rows,
+                            BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_INT_RGB
+                || image.getWidth() != columns * tileSize
+                || image.getHeight() != rows * tileSize) {
+            throw new IllegalArgumentException("image must be a " + columns * tileSize + "x"
+                    + rows * tileSize + " TYPE_INT_RGB image");
+        }
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        BandTask task = new BandTask(world, grid, columns, rows, pixels, 0, rows);
+        if (rows <= ROWS_PER_TASK) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /** Pixels of the glyph of tile. Images of another size are centered and cropped. */
+    private synchronized int[] pixelsOf(TETile tile) {
+        BufferedImage glyph = atlas.glyph(tile);
+        int[] pixels = glyphPixels.get(glyph);
+        if (pixels == null) {
+            BufferedImage square = glyph;
+            if (glyph.getWidth() != tileSize || glyph.getHeight() != tileSize) {
+                square = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = square.createGraphics();
+                g.drawImage(glyph, (tileSize - glyph.getWidth()) / 2,
+                        (tileSize - glyph.getHeight()) / 2, null);
+                g.dispose();
+            }
+            pixels = square.getRGB(0, 0, tileSize, tileSize, null, 0, tileSize);
+            glyphPixels.put(glyph, pixels);
+        }
+        return pixels;
+    }
+
+    private class BandTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient TETile[][] world;
+        private final transient TileGrid grid;
+        private final int columns;
+        private final int rows;
+        private final transient int[] pixels;
+        private final int lo;
+        private final int hi;
+
+        BandTask(TETile[][] world, TileGrid grid, int columns, int rows, int[] pixels,
+                 int lo, int hi) {
+            this.world = world;
+            this.grid = grid;
+            this.columns = columns;
+            this.rows = rows;
+            this.pixels = pixels;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > ROWS_PER_TASK) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new BandTask(world, grid, columns, rows, pixels, lo, mid),
+                        new BandTask(world, grid, columns, rows, pixels, mid, hi));
+                return;
+            }
+            // A band sees only a few distinct tiles, so it keeps its own lookups and only
+            // takes the shared lock the first time it meets each one.
+            Map<TETile, int[]> local = new IdentityHashMap<>();
+            int stride = columns * tileSize;
+            for (int y = lo; y < hi; y++) {
+                int top = (rows - 1 - y) * tileSize * stride;
+                for (int x = 0; x < columns; x++) {
+                    TETile tile = grid != null ? grid.get(x, y) : world[x][y];
+                    if (tile == null) {
+                        throw new IllegalArgumentException("Tile at position x=" + x + ", y=" + y
+                                + " is null.");
+                    }
+                    int[] glyph = local.get(tile);
+                    if (glyph == null) {
+                        glyph = pixelsOf(tile);
+                        local.put(tile, glyph);
+                    }
+                    int offset = top + x * tileSize;
+                    for (int row = 0; row < tileSize; row++) {
+                        System.arraycopy(glyph, row * tileSize, pixels, offset + row * stride,
+                                tileSize);
+                    }
+                }
+            }
+        }
+    }
+}
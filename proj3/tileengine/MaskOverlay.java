@@ -0,0 +1,36 @@
+package tileengine;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Replaces the tiles marked in a TileBitSet, for highlights such as a planned path or the
+ * tiles a monster can see. The replacement for every tile id is built once up front, so
+ * applying the overlay is a bit lookup and an array read.
+ *
+ * The mask is read live: setting or clearing bits changes the next frame.
+ */
+public class MaskOverlay implements TileOverlay {
+    private final TileBitSet mask;
+    private final TETile[] replacements;
+
+    /**
+     * @param mask tiles to replace, in world coordinates
+     * @param look maps each Tileset constant to the tile drawn in its place
+     */
+    public MaskOverlay(TileBitSet mask, UnaryOperator<TETile> look) {
+        this.mask = mask;
+        this.replacements = new TETile[Tileset.count()];
+        for (int id = 0; id < replacements.length; id++) {
+            replacements[id] = look.apply(Tileset.byId(id));
+        }
+    }
+
+    public TileBitSet mask() {
+        return mask;
+    }
+
+    @Override
+    public TETile apply(int x, int y, TETile tile) {
+        return mask.get(x, y) ? replacements[tile.id()] : tile;
+    }
+}
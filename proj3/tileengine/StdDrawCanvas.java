@@ -0,0 +1,37 @@
+package tileengine;
+
+import edu.princeton.cs.algs4.StdDraw;
+
+import java.awt.Color;
+
+/**
+ * The game window: StdDraw, scaled so one unit is one tile, double buffered so a frame
+ * appears at once on show.
+ */
+class StdDrawCanvas implements TileCanvas {
+    @Override
+    public void open(int width, int height) {
+        StdDraw.setCanvasSize(width * TERenderer.TILE_SIZE, height * TERenderer.TILE_SIZE);
+        StdDraw.setFont(TERenderer.TILE_FONT);
+        StdDraw.setXscale(0, width);
+        StdDraw.setYscale(0, height);
+        StdDraw.clear(new Color(0, 0, 0));
+        StdDraw.enableDoubleBuffering();
+        StdDraw.show();
+    }
+
+    @Override
+    public void clear() {
+        StdDraw.clear(new Color(0, 0, 0));
+    }
+
+    @Override
+    public void drawTile(TETile tile, int x, int y) {
+        tile.draw(x, y);
+    }
+
+    @Override
+    public void show() {
+        StdDraw.show();
+    }
+}
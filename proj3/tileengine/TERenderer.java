@@ -2,8 +2,8 @@ package tileengine;
 
 import edu.princeton.cs.algs4.StdDraw;
 
-import java.awt.Color;
 import java.awt.Font;
+import java.util.Arrays;
 
 /**
  * Utility class for rendering tiles. You do not need to modify this file. You're welcome
@@ -12,11 +12,33 @@ import java.awt.Font;
  * allowing scrolling of the screen or tracking the avatar or something similar.
  */
 public class TERenderer {
-    private static final int TILE_SIZE = 16;
+    static final int TILE_SIZE = 16;
+    static final Font TILE_FONT = new Font("Monaco", Font.BOLD, TILE_SIZE - 2);
+    private final TileCanvas canvas;
     private int width;
     private int height;
     private int xOffset;
     private int yOffset;
+    private TETile[][] drawn;
+    private TileOverlay[] overlays = new TileOverlay[0];
+    private int lastFrameDraws;
+    private long totalDraws;
+
+    /** A renderer that draws onto StdDraw's window. */
+    public TERenderer() {
+        this(new StdDrawCanvas());
+    }
+
+    /**
+     * A renderer that draws onto the given canvas, for example an ImageCanvas when there
+     * is no display.
+     */
+    public TERenderer(TileCanvas canvas) {
+        if (canvas == null) {
+            throw new IllegalArgumentException("canvas must not be null");
+        }
+        this.canvas = canvas;
+    }
 
     /**
      * Same functionality as the other initialization method. The only difference is that the xOff
@@ -32,19 +54,13 @@ public class TERenderer {
         this.height = h;
         this.xOffset = xOff;
         this.yOffset = yOff;
-        StdDraw.setCanvasSize(width * TILE_SIZE, height * TILE_SIZE);
-        resetFont();
-        StdDraw.setXscale(0, width);
-        StdDraw.setYscale(0, height);
-
-        StdDraw.clear(new Color(0, 0, 0));
-
-        StdDraw.enableDoubleBuffering();
-        StdDraw.show();
+        canvas.open(width, height);
+        drawn = null;
     }
 
     /**
-     * Initializes StdDraw parameters and launches the StdDraw window. w and h are the
+     * Initializes StdDraw parameters and launches the StdDraw window, or opens whatever
+     * canvas the renderer was created with. w and h are the
      * width and height of the world in number of tiles. If the TETile[][] array that you
      * pass to renderFrame is smaller than this, then extra blank space will be left
      * on the right and top edges of the frame. For example, if you select w = 60 and
@@ -80,12 +96,142 @@ public class TERenderer {
      * This method assumes that the xScale and yScale have been set such that the max x
      * value is the width of the screen in tiles, and the max y value is the height of
      * the screen in tiles.
+     *
+     * The first frame, and any frame whose size differs from the one before, clears the
+     * canvas and draws every tile. Later frames draw only the tiles that changed, on top
+     * of what is already on the canvas, so a frame costs time proportional to what moved
+     * rather than the size of the map.
      * @param world the 2D TETile[][] array to render
      */
     public void renderFrame(TETile[][] world) {
-        StdDraw.clear(new Color(0, 0, 0));
-        drawTiles(world);
-        StdDraw.show();
+        renderWindow(world, null, 0, 0, world.length, world[0].length);
+    }
+
+    /**
+     * Renders the part of world inside the camera's window, reading the tiles straight out
+     * of world, so the cost depends on the size of the window rather than the world.
+     * Window cells past the world's edges are drawn as Tileset.NOTHING. The window is
+     * drawn from xOffset and yOffset like any other frame; initialize the renderer to the
+     * camera's size.
+     * @param world the whole world
+     * @param camera the window to draw
+     */
+    public void renderFrame(TETile[][] world, Camera camera) {
+        renderWindow(world, null, camera.left(), camera.bottom(), camera.width(),
+                camera.height());
+    }
+
+    /**
+     * Renders the part of tiles inside the camera's window. Only the cells in the window
+     * are read, with TileGrid.get, so no TETile[][] mirror of the grid is built; use this
+     * rather than renderFrame(tiles.asArray(), camera) on large maps.
+     * @param tiles the whole world
+     * @param camera the window to draw
+     */
+    public void renderFrame(TileGrid tiles, Camera camera) {
+        renderWindow(null, tiles, camera.left(), camera.bottom(), camera.width(),
+                camera.height());
+    }
+
+    /**
+     * Draws the columns x by rows tiles starting at (left, bottom) of either world or
+     * grid, whichever is not null, redrawing only tiles that differ from the previous
+     * frame. A frame of a different size starts over from a cleared canvas.
+     */
+    private void renderWindow(TETile[][] world, TileGrid grid, int left, int bottom,
+                              int columns, int rows) {
+        if (drawn == null || drawn.length != columns || drawn[0].length != rows) {
+            canvas.clear();
+            drawn = new TETile[columns][rows];
+        }
+        lastFrameDraws = drawChangedTiles(world, grid, left, bottom);
+        totalDraws += lastFrameDraws;
+        canvas.show();
+    }
+
+    /**
+     * Draws only the tiles that differ from what the previous frame drew, and remembers
+     * them. Tiles are compared by reference, not id: a dimmed tile or a color variant
+     * shares its id with the original but looks different.
+     */
+    private int drawChangedTiles(TETile[][] world, TileGrid grid, int left, int bottom) {
+        int draws = 0;
+        for (int x = 0; x < drawn.length; x += 1) {
+            int worldX = left + x;
+            TETile[] previous = drawn[x];
+            for (int y = 0; y < previous.length; y += 1) {
+                int worldY = bottom + y;
+                TETile tile = tileAt(world, grid, worldX, worldY);
+                if (tile == null) {
+                    throw new IllegalArgumentException("Tile at position x=" + worldX
+                            + ", y=" + worldY + " is null.");
+                }
+                for (TileOverlay overlay : overlays) {
+                    tile = overlay.apply(worldX, worldY, tile);
+                }
+                if (tile != previous[y]) {
+                    canvas.drawTile(tile, x + xOffset, y + yOffset);
+                    previous[y] = tile;
+                    draws += 1;
+                }
+            }
+        }
+        return draws;
+    }
+
+    /** The tile at x, y of world or grid, or Tileset.NOTHING outside it. */
+    static TETile tileAt(TETile[][] world, TileGrid grid, int x, int y) {
+        if (grid != null) {
+            return grid.inBounds(x, y) ? grid.get(x, y) : Tileset.NOTHING;
+        }
+        return x >= 0 && x < world.length && y >= 0 && y < world[x].length
+                ? world[x][y] : Tileset.NOTHING;
+    }
+
+    /**
+     * Adds a layer applied to every tile renderFrame draws, after the layers added before
+     * it. Overlays are composited while drawing, so the world array is never copied; the
+     * dirty-tile check compares the composited tiles, so a change in an overlay redraws
+     * exactly the tiles whose look changed.
+     */
+    public void addOverlay(TileOverlay overlay) {
+        if (overlay == null) {
+            throw new IllegalArgumentException("overlay must not be null");
+        }
+        overlays = Arrays.copyOf(overlays, overlays.length + 1);
+        overlays[overlays.length - 1] = overlay;
+    }
+
+    /** Removes an overlay added with addOverlay. Does nothing if it was not added. */
+    public void removeOverlay(TileOverlay overlay) {
+        for (int i = 0; i < overlays.length; i++) {
+            if (overlays[i] == overlay) {
+                TileOverlay[] rest = new TileOverlay[overlays.length - 1];
+                System.arraycopy(overlays, 0, rest, 0, i);
+                System.arraycopy(overlays, i + 1, rest, i, rest.length - i);
+                overlays = rest;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Makes the next renderFrame clear the canvas and draw every tile. Call this after
+     * drawing anything else over the tiles, such as a menu or HUD, since renderFrame
+     * otherwise only redraws the tiles that changed since the frame before.
+     */
+    public void invalidate() {
+        drawn = null;
+    }
+
+    /** Number of tiles the last renderFrame call drew. */
+    public int lastFrameDrawCount() {
+        return lastFrameDraws;
+    }
+
+    /** Number of tiles drawn by renderFrame since this renderer was created. */
+    public long totalDrawCount() {
+        return totalDraws;
     }
 
     /**
@@ -101,7 +247,7 @@ public class TERenderer {
                     throw new IllegalArgumentException("Tile at position x=" + x + ", y=" + y
                             + " is null.");
                 }
-                world[x][y].draw(x + xOffset, y + yOffset);
+                canvas.drawTile(world[x][y], x + xOffset, y + yOffset);
             }
         }
     }
@@ -111,7 +257,6 @@ public class TERenderer {
      * if you changed the pen settings.
      */
     public void resetFont() {
-        Font font = new Font("Monaco", Font.BOLD, TILE_SIZE - 2);
-        StdDraw.setFont(font);
+        StdDraw.setFont(TILE_FONT);
     }
 }
@@ -28,6 +28,8 @@ public class TETile {
     private final String description;
     private final String filepath;
     private final int id;
+    /** The character as a String, made once so draw does not allocate one per call. */
+    private final String glyph;
 
     /**
      * Full constructor for TETile objects.
@@ -45,6 +47,7 @@ public class TETile {
         this.description = description;
         this.filepath = filepath;
         this.id = id;
+        this.glyph = String.valueOf(character);
     }
 
     /**
@@ -62,6 +65,7 @@ public class TETile {
         this.description = description;
         this.filepath = null;
         this.id = id;
+        this.glyph = String.valueOf(character);
     }
 
     /**
@@ -73,6 +77,25 @@ public class TETile {
         this(t.character, textColor, t.backgroundColor, t.description, t.filepath, t.id);
     }
 
+    /**
+     * Returns a copy of this tile with its text and background colors scaled toward black.
+     * Image tiles keep their image.
+     * @param brightness fraction of the original brightness to keep, in [0, 1]
+     */
+    public TETile dimmed(double brightness) {
+        if (!(brightness >= 0 && brightness <= 1)) {
+            throw new IllegalArgumentException("brightness must be in [0, 1]: " + brightness);
+        }
+        return new TETile(character, scale(textColor, brightness),
+                scale(backgroundColor, brightness), description, filepath, id);
+    }
+
+    private static Color scale(Color c, double brightness) {
+        return new Color((int) Math.round(c.getRed() * brightness),
+                (int) Math.round(c.getGreen() * brightness),
+                (int) Math.round(c.getBlue() * brightness));
+    }
+
     /**
      * Creates a copy of TETile t, except with given character.
      * @param t tile to copy
@@ -88,26 +111,30 @@ public class TETile {
      * we draw the image located at that filepath to the screen. Otherwise, we fall
      * back to the character and color representation for the tile.
      *
+     * Whether the image loads is looked up in TileImages, which tries each path once in
+     * the same order StdDraw does, so a missing image costs nothing extra after the first
+     * frame. StdDraw.picture still reads the image itself, since it cannot be handed a
+     * decoded one; if it fails anyway, the character is drawn instead.
+     *
      * Note that the image provided must be of the right size (16x16). It will not be
      * automatically resized or truncated.
      * @param x x coordinate
      * @param y y coordinate
      */
     public void draw(double x, double y) {
-        if (filepath != null) {
+        if (filepath != null && TileImages.get(filepath) != null) {
             try {
                 StdDraw.picture(x + 0.5, y + 0.5, filepath);
                 return;
             } catch (IllegalArgumentException e) {
-                // Exception happens because the file can't be found. In this case, fail silently
-                // and just use the character and background color for the tile.
+                // StdDraw could not read it after all; fall back to the character.
             }
         }
 
         StdDraw.setPenColor(backgroundColor);
         StdDraw.filledSquare(x + 0.5, y + 0.5, 0.5);
         StdDraw.setPenColor(textColor);
-        StdDraw.text(x + 0.5, y + 0.5, Character.toString(character()));
+        StdDraw.text(x + 0.5, y + 0.5, glyph);
     }
 
     /** Character representation of the tile. Used for drawing in text mode.
@@ -117,6 +144,21 @@ public class TETile {
         return character;
     }
 
+    /** Color of the character. */
+    Color textColor() {
+        return textColor;
+    }
+
+    /** Color drawn behind the character. */
+    Color backgroundColor() {
+        return backgroundColor;
+    }
+
+    /** Path of the image drawn in place of the character, or null if there is none. */
+    String filepath() {
+        return filepath;
+    }
+
     /**
      * Description of the tile. Useful for displaying mouseover text or
      * testing that two tiles represent the same type of thing.
@@ -0,0 +1,139 @@
+package tileengine;
+
+import java.util.Arrays;
+
+/**
+ * One bit per tile of a width x height board, packed into longs in the same column-major
+ * order TileGrid uses (index = x * height + y). Used for per-tile flags such as the set of
+ * tiles the avatar can currently see, where a boolean[][] would cost eight times as much.
+ */
+public class TileBitSet {
+    private final int width;
+    private final int height;
+    private final long[] words;
+
+    public TileBitSet(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("invalid bitset size: " + width + "x" + height);
+        }
+        if ((long) width * height > TileGrid.MAX_CELLS) {
+            throw new IllegalArgumentException("bitset too large: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.words = new long[(int) (((long) width * height + 63) >>> 6)];
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /** Whether the bit at x, y is set. Out-of-bounds positions read as unset. */
+    public boolean get(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+        int i = x * height + y;
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public void set(int x, int y) {
+        int i = x * height + y;
+        words[i >>> 6] |= 1L << i;
+    }
+
+    public void clear(int x, int y) {
+        int i = x * height + y;
+        words[i >>> 6] &= ~(1L << i);
+    }
+
+    /** Clears every bit. */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Clears the bits of the rectangle from (x0, y0) to (x1, y1), both corners inclusive.
+     * Parts of the rectangle outside the board are ignored.
+     */
+    public void clear(int x0, int y0, int x1, int y1) {
+        int fromY = Math.max(0, y0);
+        int toY = Math.min(height - 1, y1);
+        for (int x = Math.max(0, x0); x <= Math.min(width - 1, x1); x++) {
+            for (int y = fromY; y <= toY; y++) {
+                clear(x, y);
+            }
+        }
+    }
+
+    /**
+     * Sets every bit that is set in other within the rectangle from (x0, y0) to (x1, y1),
+     * both corners inclusive. Lets a caller merge a small changed area without walking the
+     * whole board. Both sets must have the same size.
+     */
+    public void or(TileBitSet other, int x0, int y0, int x1, int y1) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("bitset sizes differ: " + other.width + "x"
+                    + other.height + " vs " + width + "x" + height);
+        }
+        int fromY = Math.max(0, y0);
+        int toY = Math.min(height - 1, y1);
+        for (int x = Math.max(0, x0); x <= Math.min(width - 1, x1); x++) {
+            for (int y = fromY; y <= toY; y++) {
+                int i = x * height + y;
+                words[i >>> 6] |= other.words[i >>> 6] & (1L << i);
+            }
+        }
+    }
+
+    /**
+     * Packs the bits into ceil(width * height / 8) bytes, bit i of the board in bit i % 8
+     * of byte i / 8.
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[(int) (((long) width * height + 7) >>> 3)];
+        for (int b = 0; b < bytes.length; b++) {
+            bytes[b] = (byte) (words[b >>> 3] >>> ((b & 7) * 8));
+        }
+        return bytes;
+    }
+
+    /**
+     * Replaces every bit with the contents of an array written by toByteArray for a board
+     * of the same size.
+     */
+    public void readByteArray(byte[] bytes) {
+        if (bytes.length != ((long) width * height + 7) >>> 3) {
+            throw new IllegalArgumentException("expected " + (((long) width * height + 7) >>> 3)
+                    + " bytes for a " + width + "x" + height + " board, got " + bytes.length);
+        }
+        Arrays.fill(words, 0L);
+        for (int b = 0; b < bytes.length; b++) {
+            words[b >>> 3] |= (bytes[b] & 0xFFL) << ((b & 7) * 8);
+        }
+    }
+
+    /**
+     * Makes this set equal to other, which must have the same size.
+     */
+    public void copyFrom(TileBitSet other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("bitset sizes differ: " + other.width + "x"
+                    + other.height + " vs " + width + "x" + height);
+        }
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /** Number of set bits. */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package tileengine;
+
+/**
+ * Where TERenderer draws tiles. The game draws onto StdDraw's window; an ImageCanvas
+ * draws into a BufferedImage instead, so the renderer can be tested and benchmarked on a
+ * machine with no display.
+ *
+ * Coordinates are in tiles, with y = 0 at the bottom, as in TETile.draw.
+ */
+public interface TileCanvas {
+    /** Prepares a canvas width by height tiles, cleared to black. */
+    void open(int width, int height);
+
+    /** Clears the whole canvas to black. */
+    void clear();
+
+    /** Draws tile over whatever is at x, y. */
+    void drawTile(TETile tile, int x, int y);
+
+    /** Makes everything drawn since the last call visible. */
+    void show();
+}
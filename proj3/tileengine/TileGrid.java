@@ -0,0 +1,142 @@
+package tileengine;
+
+import java.util.Arrays;
+
+/**
+ * A width x height board of tiles packed into a single byte array. Each cell stores the
+ * id of its tile (see Tileset.byId) in the low seven bits and an occupancy flag in the high
+ * bit, so a 70x60 board takes about 4KB instead of a TETile[][] of object references plus
+ * a separate boolean[][].
+ *
+ * One byte per cell means a 10,000 x 10,000 map fits in about 100MB; avoid asArray on
+ * maps that large, since the view costs eight times as much.
+ *
+ * Cells are laid out column by column (index = x * height + y), matching the order of a
+ * TETile[x][y] array, so loops over x then y walk memory sequentially.
+ *
+ * Because only ids are stored, reading a cell always returns the canonical Tileset tile
+ * for that id; color variants made with TETile.colorVariant are not preserved.
+ */
+public class TileGrid {
+    private static final int ID_MASK = 0x7F;
+    private static final int OCCUPIED = 0x80;
+    /** Largest number of cells a single byte array can hold on common JVMs. */
+    public static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    private final int width;
+    private final int height;
+    private final byte[] cells;
+    private TETile[][] view;
+    private long writes;
+
+    /**
+     * Creates a grid where every cell holds tile id 0 and is unoccupied. Call fill
+     * to start from a different tile.
+     * @param width width of the grid in tiles
+     * @param height height of the grid in tiles
+     */
+    public TileGrid(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("invalid grid size: " + width + "x" + height);
+        }
+        if ((long) width * height > MAX_CELLS) {
+            throw new IllegalArgumentException("grid too large: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = new byte[width * height];
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /** Id of the tile at x, y. */
+    public int id(int x, int y) {
+        return cells[x * height + y] & ID_MASK;
+    }
+
+    public TETile get(int x, int y) {
+        return Tileset.byId(id(x, y));
+    }
+
+    /** Whether the tile at x, y has the same id as the given tile. */
+    public boolean is(int x, int y, TETile tile) {
+        return (cells[x * height + y] & ID_MASK) == tile.id();
+    }
+
+    /**
+     * Replaces the tile at x, y, keeping the cell's occupancy flag.
+     * @throws IllegalArgumentException if the tile's id is not a Tileset id; the cell is
+     *                                  left unchanged
+     */
+    public void set(int x, int y, TETile tile) {
+        TETile canonical = Tileset.byId(tile.id());
+        int i = x * height + y;
+        cells[i] = (byte) ((cells[i] & OCCUPIED) | canonical.id());
+        writes++;
+        if (view != null) {
+            view[x][y] = canonical;
+        }
+    }
+
+    public boolean isOccupied(int x, int y) {
+        return (cells[x * height + y] & OCCUPIED) != 0;
+    }
+
+    public void setOccupied(int x, int y, boolean occupied) {
+        int i = x * height + y;
+        cells[i] = (byte) (occupied ? cells[i] | OCCUPIED : cells[i] & ID_MASK);
+        writes++;
+    }
+
+    /**
+     * Sets every cell to the given tile and clears all occupancy flags.
+     * @throws IllegalArgumentException if the tile's id is not a Tileset id; the grid is
+     *                                  left unchanged
+     */
+    public void fill(TETile tile) {
+        TETile canonical = Tileset.byId(tile.id());
+        Arrays.fill(cells, (byte) canonical.id());
+        writes += cells.length;
+        if (view != null) {
+            for (TETile[] column : view) {
+                Arrays.fill(column, canonical);
+            }
+        }
+    }
+
+    /**
+     * Number of cell writes made through set, setOccupied and fill since the grid was
+     * created; fill counts every cell. Generation profiling diffs this around each stage.
+     */
+    public long writeCount() {
+        return writes;
+    }
+
+    /**
+     * Returns a TETile[][] mirror of this grid for code that works with arrays, such as
+     * TERenderer. The array is built on the first call and then kept in sync by every
+     * later set, so repeated calls are free. Writes made directly into the returned array
+     * are not seen by the grid; use set instead.
+     */
+    public TETile[][] asArray() {
+        if (view == null) {
+            view = new TETile[width][height];
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    view[x][y] = get(x, y);
+                }
+            }
+        }
+        return view;
+    }
+}
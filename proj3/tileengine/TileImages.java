@@ -0,0 +1,95 @@
+package tileengine;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoded tile images, shared by every tile and renderer. Each path is read at most once;
+ * a path that is missing or does not decode is remembered as missing, so drawing a tile
+ * whose image is absent costs a map lookup rather than a failed load per frame.
+ *
+ * Paths are resolved in the order StdDraw.picture tries them: a file on disk, an absolute
+ * URI, a classpath resource relative to StdDraw's package, and finally a resource at the
+ * classpath root. An image found here is therefore one StdDraw can draw too.
+ */
+public final class TileImages {
+    /** Stands in for paths that failed to load, since the map cannot hold null. */
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+    private static final Map<String, BufferedImage> CACHE = new ConcurrentHashMap<>();
+    /**
+     * Where StdDraw.class.getResource looks for relative names. Spelled out rather than
+     * taken from StdDraw.class, since loading StdDraw opens its window and would break
+     * headless renderers.
+     */
+    private static final String STD_DRAW_PACKAGE = "/edu/princeton/cs/algs4/";
+
+    private TileImages() {
+    }
+
+    /**
+     * Returns the image at path, decoding it on first use, or null if it cannot be loaded.
+     */
+    public static BufferedImage get(String path) {
+        BufferedImage image = CACHE.computeIfAbsent(path, TileImages::load);
+        return image == MISSING ? null : image;
+    }
+
+    /** Whether path has been tried and could not be loaded. */
+    public static boolean isMissing(String path) {
+        return CACHE.get(path) == MISSING;
+    }
+
+    /** Forgets every cached image and failure, for example after assets change on disk. */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static BufferedImage load(String path) {
+        try {
+            BufferedImage image = null;
+            File file = new File(path);
+            if (file.isFile()) {
+                image = ImageIO.read(file);
+            }
+            if (image == null) {
+                URL url = absoluteUrl(path);
+                image = url == null ? null : ImageIO.read(url);
+            }
+            if (image == null) {
+                URL url = stdDrawResource(path);
+                image = url == null ? null : ImageIO.read(url);
+            }
+            if (image == null) {
+                URL url = stdDrawResource("/" + path);
+                image = url == null ? null : ImageIO.read(url);
+            }
+            return image == null ? MISSING : image;
+        } catch (IOException | RuntimeException e) {
+            return MISSING;
+        }
+    }
+
+    /** path as a URL if it is an absolute URI, such as an http or file URL, else null. */
+    private static URL absoluteUrl(String path) {
+        try {
+            URI uri = new URI(path);
+            return uri.isAbsolute() ? uri.toURL() : null;
+        } catch (URISyntaxException | MalformedURLException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** The resource StdDraw.class.getResource(name) would return. */
+    private static URL stdDrawResource(String name) {
+        String absolute = name.startsWith("/") ? name : STD_DRAW_PACKAGE + name;
+        return TileImages.class.getResource(absolute);
+    }
+}
@@ -0,0 +1,19 @@
+package tileengine;
+
+/**
+ * A layer TERenderer composites over the base tiles while drawing, such as fog of war or
+ * highlighted tiles, so callers never build a modified copy of the world for each frame.
+ *
+ * apply runs for every on-screen tile of every frame, so it must be cheap and should not
+ * allocate: return the tile it was given or a shared constant such as one from Tileset.
+ * TERenderer redraws a tile whenever the returned reference changes.
+ */
+public interface TileOverlay {
+    /**
+     * Returns the tile to draw at world position x, y.
+     * @param x world x of the tile
+     * @param y world y of the tile
+     * @param tile the base tile after every earlier overlay has been applied
+     */
+    TETile apply(int x, int y, TETile tile);
+}
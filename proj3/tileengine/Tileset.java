@@ -34,6 +34,62 @@ public class Tileset {
     public static final TETile TREE = new TETile('♠', Color.green, Color.black, "tree", 11);
 
     public static final TETile CELL = new TETile('█', Color.white, Color.black, "cell", 12);
-}
 
+    private static final TETile[] BY_ID = {
+        AVATAR, WALL, FLOOR, NOTHING, GRASS, WATER, FLOWER, LOCKED_DOOR, UNLOCKED_DOOR, SAND,
+        MOUNTAIN, TREE, CELL
+    };
+
+    /** Brightness of remembered but currently unseen tiles. */
+    public static final double DIM_BRIGHTNESS = 0.4;
+
+    private static final TETile[] DIMMED = new TETile[BY_ID.length];
+
+    static {
+        for (int i = 0; i < BY_ID.length; i++) {
+            DIMMED[i] = BY_ID[i].dimmed(DIM_BRIGHTNESS);
+        }
+    }
+
+    /**
+     * Returns the shared dimmed version of a tile constant, used to draw tiles the player
+     * remembers but cannot currently see. The dimmed tile keeps the original's id.
+     */
+    public static TETile dimmed(TETile tile) {
+        return DIMMED[tile.id()];
+    }
 
+    private static final boolean[] PASSABLE = new boolean[BY_ID.length];
+
+    static {
+        for (TETile tile : new TETile[] {AVATAR, FLOOR, GRASS, FLOWER, UNLOCKED_DOOR, SAND}) {
+            PASSABLE[tile.id()] = true;
+        }
+    }
+
+    /**
+     * Whether creatures can walk onto a tile with the given id. Walls, empty space, water,
+     * mountains, trees, cells and locked doors block movement.
+     */
+    public static boolean isPassable(int id) {
+        return PASSABLE[id];
+    }
+
+    /**
+     * Returns the tile constant with the given id. Used to turn the ids stored in a
+     * TileGrid back into tiles.
+     * @param id id of the tile
+     * @return the tile with that id
+     */
+    public static TETile byId(int id) {
+        if (id < 0 || id >= BY_ID.length) {
+            throw new IllegalArgumentException("Unknown tile id: " + id);
+        }
+        return BY_ID[id];
+    }
+
+    /** Number of tile constants; ids run from 0 to count() - 1. */
+    public static int count() {
+        return BY_ID.length;
+    }
+}